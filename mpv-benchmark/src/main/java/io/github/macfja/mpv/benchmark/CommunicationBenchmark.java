@@ -0,0 +1,66 @@
+package io.github.macfja.mpv.benchmark;
+
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the command encoding ({@code Communication.write}).
+ * The loopback responder drop every line, so only the client side is measured.
+ *
+ * @author MacFJA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommunicationBenchmark {
+    /**
+     * The communication to write on
+     */
+    private LoopbackCommunication communication;
+    /**
+     * The command arguments
+     */
+    private List<Serializable> arguments;
+
+    @Setup
+    public void setUp() throws IOException {
+        communication = new LoopbackCommunication(new LoopbackCommunication.Responder() {
+            @Override
+            public void respond(String line, LoopbackCommunication client) {
+                // Drop the command
+            }
+        });
+        communication.setExitOnClose(false);
+        communication.open();
+        arguments = Arrays.<Serializable>asList("volume", 50);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        communication.close();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        return communication.write("set_property", arguments);
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.macfja.mpv.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.MessagesListener;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the receiving side: parsing of the lines ({@code MessagesListener.run})
+ * and the search of the handlers ({@code MessagesListener.handleLine}).
+ * Each handler observe a different property, and the message match the first one.
+ * The handlers don't start any thread, so only the dispatch is measured.
+ *
+ * @author MacFJA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagesListenerBenchmark {
+    /**
+     * The number of lines read by each {@code run} invocation
+     */
+    private static final int LINES = 1000;
+    /**
+     * The number of registered handlers
+     */
+    @Param({"1", "10", "1000"})
+    public int handlers;
+    /**
+     * The message to dispatch
+     */
+    private JSONObject message;
+    /**
+     * The listener
+     */
+    private MessagesListener listener;
+
+    @Setup
+    public void setUp() {
+        message = PropertyObserver.buildPropertyChangeEvent("property-0", 42.5, 1);
+        listener = createListener(null);
+    }
+
+    /**
+     * Create a listener with the benchmarked handlers
+     *
+     * @param input The stream read by the listener ({@code null} if it's not run)
+     * @return The listener
+     */
+    private MessagesListener createListener(InputStream input) {
+        MessagesListener created = new MessagesListener(input, LoggerFactory.getLogger(MessagesListener.class));
+        for (int index = 0; index < handlers; index++) {
+            created.addMessageHandler(new PropertyObserver("property-" + index, 1) {
+                @Override
+                public void changed(String propertyName, Object value, Integer id) {
+                }
+
+                @Override
+                public Runnable doHandle(JSONObject message) {
+                    return null;
+                }
+            });
+        }
+        return created;
+    }
+
+    @Benchmark
+    public void handleLine() {
+        listener.handleLine(message);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void run(Lines lines) {
+        lines.listener.run();
+    }
+
+    /**
+     * The lines read by the {@code run} benchmark.
+     * The stream is rewound before each invocation: it's a separate state, so this per-invocation setup
+     * doesn't disturb the (much shorter) {@code handleLine} benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class Lines {
+        /**
+         * The stream read by the listener
+         */
+        private ByteArrayInputStream input;
+        /**
+         * The listener of the stream
+         */
+        private MessagesListener listener;
+
+        @Setup
+        public void setUp(MessagesListenerBenchmark benchmark) {
+            StringBuilder lines = new StringBuilder();
+            for (int index = 0; index < LINES; index++) {
+                lines.append(benchmark.message.toJSONString()).append('\n');
+            }
+            input = new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.UTF_8));
+            listener = benchmark.createListener(input);
+        }
+
+        @Setup(Level.Invocation)
+        public void rewind() {
+            input.reset();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.macfja.mpv.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the matching of a property observer ({@code PropertyObserver.canHandle}).
+ *
+ * @author MacFJA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyObserverBenchmark {
+    /**
+     * The observer
+     */
+    private PropertyObserver observer;
+    /**
+     * A change of the observed property
+     */
+    private JSONObject matching;
+    /**
+     * A change of another property
+     */
+    private JSONObject otherProperty;
+    /**
+     * A command response
+     */
+    private JSONObject response;
+
+    @Setup
+    public void setUp() {
+        observer = new PropertyObserver("time-pos", 1) {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+            }
+        };
+        matching = PropertyObserver.buildPropertyChangeEvent("time-pos", 12.5, 1);
+        otherProperty = PropertyObserver.buildPropertyChangeEvent("volume", 100, 2);
+        response = new JSONObject().fluentPut("error", "success").fluentPut("data", 12.5).fluentPut("request_id", 3);
+    }
+
+    @Benchmark
+    public boolean matching() {
+        return observer.canHandle(matching);
+    }
+
+    @Benchmark
+    public boolean otherProperty() {
+        return observer.canHandle(otherProperty);
+    }
+
+    @Benchmark
+    public boolean response() {
+        return observer.canHandle(response);
+    }
+}
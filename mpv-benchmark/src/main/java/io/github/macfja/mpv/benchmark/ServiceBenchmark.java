@@ -0,0 +1,89 @@
+package io.github.macfja.mpv.benchmark;
+
+import io.github.macfja.mpv.MpvService;
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import io.github.macfja.mpv.simulator.SimulatedMpv;
+import io.github.macfja.mpv.simulator.UnixSocketServer;
+import io.github.macfja.mpv.wrapper.ExistingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of a command round-trip ({@code Service.sendCommand}), against the simulated MPV.
+ *
+ * @author MacFJA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+    /**
+     * The transport between the service and the simulated MPV
+     */
+    @Param({"loopback", "socket"})
+    public String transport;
+    /**
+     * The simulated MPV
+     */
+    private SimulatedMpv mpv;
+    /**
+     * The socket server (if any)
+     */
+    private UnixSocketServer server;
+    /**
+     * The measured service
+     */
+    private MpvService service;
+    /**
+     * The command arguments
+     */
+    private List<String> arguments;
+
+    @Setup
+    public void setUp() throws IOException {
+        mpv = new SimulatedMpv();
+        arguments = Collections.singletonList("volume");
+        if ("socket".equals(transport)) {
+            Path socket = Files.createTempDirectory("mpv-benchmark").resolve("mpv.sock");
+            server = new UnixSocketServer(mpv, socket);
+            server.start();
+            service = new ExistingService(socket.toString());
+        } else {
+            service = new ExistingService("simulator", new LoopbackCommunication(mpv));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        service.close();
+        if (server != null) {
+            server.close();
+        }
+        mpv.close();
+    }
+
+    @Benchmark
+    public String sendCommand() throws IOException {
+        return service.sendCommand("get_property", arguments);
+    }
+}
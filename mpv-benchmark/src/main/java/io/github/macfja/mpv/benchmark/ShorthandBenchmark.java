@@ -0,0 +1,69 @@
+package io.github.macfja.mpv.benchmark;
+
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import io.github.macfja.mpv.simulator.SimulatedMpv;
+import io.github.macfja.mpv.wrapper.ExistingService;
+import io.github.macfja.mpv.wrapper.Shorthand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@code Shorthand.getTimes} (two property round-trips and their decoding),
+ * and of the primitive {@code Shorthand.getTimePosition}, against the simulated MPV in the JVM.
+ *
+ * @author MacFJA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShorthandBenchmark {
+    /**
+     * The simulated MPV
+     */
+    private SimulatedMpv mpv;
+    /**
+     * The measured service
+     */
+    private Shorthand shorthand;
+
+    @Setup
+    public void setUp() throws IOException {
+        mpv = new SimulatedMpv();
+        shorthand = new Shorthand(new ExistingService("simulator", new LoopbackCommunication(mpv)));
+        shorthand.addMedia("/media/benchmark.mp3", false);
+        shorthand.pause();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        shorthand.close();
+        mpv.close();
+    }
+
+    @Benchmark
+    public Map<Shorthand.TimeKey, BigDecimal> getTimes() throws IOException {
+        return shorthand.getTimes();
+    }
+
+    @Benchmark
+    public double getTimePosition() throws IOException {
+        return shorthand.getTimePosition();
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.macfja.mpv.simulator;
+
+import java.io.IOException;
+
+/**
+ * A client connected to the simulated MPV.
+ *
+ * @author MacFJA
+ */
+public interface ClientInterface {
+    /**
+     * Send a line to the client
+     *
+     * @param line The JSON line (without the line feed)
+     * @throws IOException If the client can't receive the line anymore
+     */
+    void send(String line) throws IOException;
+}
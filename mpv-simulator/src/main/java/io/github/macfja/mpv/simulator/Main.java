@@ -0,0 +1,71 @@
+package io.github.macfja.mpv.simulator;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Command line entry point.
+ * It accept the same IPC option as MPV, so it can replace the MPV binary:
+ * <pre>
+ * java -jar mpv-simulator-standalone.jar --input-ipc-server=/tmp/mpv.sock [--sim-latency=MICROSECONDS]
+ *      [--sim-event-rate=TICKS_PER_SECOND] [--sim-payload=BYTES] [--sim-duration=SECONDS]
+ *      [--sim-storm-properties=time-pos,percent-pos]
+ * </pre>
+ * Other MPV options (like {@code --idle} or {@code --force-window}) are ignored.
+ *
+ * @author MacFJA
+ */
+public class Main {
+    /**
+     * Run the simulated MPV until a client send the {@code quit} command
+     *
+     * @param args The command line arguments
+     * @throws IOException          If the socket can't be created
+     * @throws InterruptedException If interrupted while running
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        SimulatorSettings settings = new SimulatorSettings();
+        String socketPath = null;
+        for (String argument : args) {
+            String[] option = argument.split("=", 2);
+            String value = option.length > 1 ? option[1] : "";
+            switch (option[0]) {
+                case "--input-ipc-server":
+                    socketPath = value;
+                    break;
+                case "--sim-latency":
+                    settings.setResponseLatency(Long.parseLong(value));
+                    break;
+                case "--sim-event-rate":
+                    settings.setEventRate(Integer.parseInt(value));
+                    break;
+                case "--sim-payload":
+                    settings.setPayloadSize(Integer.parseInt(value));
+                    break;
+                case "--sim-duration":
+                    settings.setMediaDuration(Double.parseDouble(value));
+                    break;
+                case "--sim-storm-properties":
+                    settings.setStormProperties(Arrays.asList(value.split(",")));
+                    break;
+                default:
+                    // MPV option, not relevant for the simulation
+                    break;
+            }
+        }
+        if (socketPath == null) {
+            System.err.println("The option --input-ipc-server=<path> is required");
+            System.exit(1);
+        }
+
+        final CountDownLatch quit = new CountDownLatch(1);
+        try (SimulatedMpv mpv = new SimulatedMpv(settings);
+             UnixSocketServer server = new UnixSocketServer(mpv, Paths.get(socketPath))) {
+            mpv.setQuitListener(quit::countDown);
+            server.start();
+            quit.await();
+        }
+    }
+}
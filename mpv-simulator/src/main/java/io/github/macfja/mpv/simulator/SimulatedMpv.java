@@ -0,0 +1,725 @@
+package io.github.macfja.mpv.simulator;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The simulated MPV.
+ * It implements the JSON-IPC protocol (properties, observation, playlist and playback events) without any media decoding.
+ * It can be exposed on a Unix socket (see {@link UnixSocketServer}) or used in the JVM with a {@link LoopbackCommunication}.
+ *
+ * @author MacFJA
+ */
+public class SimulatedMpv implements LoopbackCommunication.Responder, Closeable {
+    /**
+     * The properties that are computed from the playback state (and can't be set directly)
+     */
+    private static final List<String> COMPUTED_PROPERTIES = Arrays.asList(
+            "time-pos", "playback-time", "time-remaining", "percent-pos", "duration", "path", "filename",
+            "playlist-count", "playlist-pos", "idle-active", "metadata", "demuxer-cache-state", "demuxer-cache-duration"
+    );
+    /**
+     * The class logger
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    /**
+     * The knobs of the simulation
+     */
+    private final SimulatorSettings settings;
+    /**
+     * The thread that run delayed responses, events storm and end of media
+     */
+    private final ScheduledExecutorService scheduler;
+    /**
+     * The plain (not computed) properties
+     */
+    private final Map<String, Object> properties = new HashMap<>();
+    /**
+     * The observed properties of each client (observe id by property name)
+     */
+    private final Map<ClientInterface, List<Observation>> observations = new ConcurrentHashMap<>();
+    /**
+     * The loopback communications, and their client adapter
+     */
+    private final Map<LoopbackCommunication, ClientInterface> loopbackClients = new ConcurrentHashMap<>();
+    /**
+     * The playlist
+     */
+    private final List<String> playlist = new ArrayList<>();
+    /**
+     * The position in the playlist ({@code -1} when idle)
+     */
+    private int playlistPosition = -1;
+    /**
+     * The playback position (in seconds) when the playback last started/paused/seek
+     */
+    private double position = 0;
+    /**
+     * The {@link System#nanoTime()} of the last playback start ({@code -1} if not playing)
+     */
+    private long playingSince = -1;
+    /**
+     * The scheduled end of the current media
+     */
+    private ScheduledFuture<?> endOfMedia;
+    /**
+     * The action to run when a client ask to quit
+     */
+    private Runnable quitListener;
+
+    /**
+     * Constructor with default settings (no latency, no event storm).
+     */
+    public SimulatedMpv() {
+        this(new SimulatorSettings());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param settings The knobs of the simulation
+     */
+    public SimulatedMpv(SimulatorSettings settings) {
+        this.settings = settings;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mpv-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        properties.put("mpv-version", "mpv 0.0.0-simulator");
+        properties.put("volume", 100);
+        properties.put("pause", false);
+        properties.put("mute", false);
+        properties.put("speed", 1);
+        properties.put("loop-playlist", false);
+
+        if (settings.getEventRate() > 0) {
+            long period = TimeUnit.SECONDS.toNanos(1) / settings.getEventRate();
+            scheduler.scheduleAtFixedRate(this::stormTick, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Set the action to run when a client send the {@code quit} command
+     *
+     * @param quitListener The action
+     */
+    public void setQuitListener(Runnable quitListener) {
+        this.quitListener = quitListener;
+    }
+
+    /**
+     * Register a new connected client
+     *
+     * @param client The client
+     */
+    public void connect(ClientInterface client) {
+        observations.put(client, new ArrayList<Observation>());
+    }
+
+    /**
+     * Forget a disconnected client
+     *
+     * @param client The client
+     */
+    public void disconnect(ClientInterface client) {
+        observations.remove(client);
+    }
+
+    @Override
+    public void respond(String line, final LoopbackCommunication client) {
+        ClientInterface adapter = loopbackClients.get(client);
+        if (adapter == null) {
+            adapter = client::push;
+            loopbackClients.put(client, adapter);
+            connect(adapter);
+        }
+        receive(adapter, line);
+    }
+
+    /**
+     * Process a line sent by a client
+     *
+     * @param client The client that sent the line
+     * @param line   The JSON line
+     */
+    public void receive(ClientInterface client, String line) {
+        JSONObject request;
+        try {
+            request = JSONObject.parseObject(line);
+        } catch (RuntimeException e) {
+            logger.debug("Invalid JSON: " + line);
+            reply(client, new JSONObject().fluentPut("error", "invalid parameter"), new ArrayList<Outgoing>());
+            return;
+        }
+        if (request == null || !(request.get("command") instanceof JSONArray)) {
+            reply(client, new JSONObject().fluentPut("error", "invalid parameter"), new ArrayList<Outgoing>());
+            return;
+        }
+
+        JSONObject response = new JSONObject();
+        if (request.containsKey("request_id")) {
+            response.put("request_id", request.get("request_id"));
+        }
+        List<Outgoing> events = new ArrayList<>();
+        synchronized (this) {
+            execute(client, request.getJSONArray("command"), response, events);
+        }
+        reply(client, response, events);
+    }
+
+    /**
+     * Run a command
+     *
+     * @param client   The client that sent the command
+     * @param command  The command name and arguments
+     * @param response The response to fill
+     * @param events   The events to send after the response
+     */
+    private void execute(ClientInterface client, JSONArray command, JSONObject response, List<Outgoing> events) {
+        response.put("error", "success");
+        String name = command.getString(0);
+        switch (name == null ? "" : name) {
+            case "get_property":
+            case "get_property_string":
+                if (!hasProperty(command.getString(1))) {
+                    response.put("error", "property unavailable");
+                    break;
+                }
+                Object value = getProperty(command.getString(1));
+                response.put("data", "get_property".equals(name) || value == null ? value : String.valueOf(value));
+                break;
+            case "set_property":
+            case "set_property_string":
+                setProperty(command.getString(1), command.get(2), response, events);
+                break;
+            case "cycle":
+                setProperty(command.getString(1), !Boolean.TRUE.equals(properties.get(command.getString(1))), response, events);
+                break;
+            case "observe_property":
+                Observation observation = new Observation(command.getLongValue(1), command.getString(2));
+                observed(client).add(observation);
+                events.add(new Outgoing(client, propertyChange(observation)));
+                break;
+            case "unobserve_property":
+                Iterator<Observation> iterator = observed(client).iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().id == command.getLongValue(1)) {
+                        iterator.remove();
+                    }
+                }
+                break;
+            case "loadfile":
+                loadFile(command.getString(1), command.size() > 2 ? command.getString(2) : "replace", events);
+                break;
+            case "playlist-next":
+                if (playlistPosition < 0 || playlistPosition + 1 >= playlist.size()) {
+                    response.put("error", "error running command");
+                    break;
+                }
+                endFile("stop", events);
+                startFile(playlistPosition + 1, events);
+                break;
+            case "playlist-prev":
+                if (playlistPosition <= 0) {
+                    response.put("error", "error running command");
+                    break;
+                }
+                endFile("stop", events);
+                startFile(playlistPosition - 1, events);
+                break;
+            case "playlist-clear":
+                playlist.clear();
+                break;
+            case "stop":
+                stop(events);
+                break;
+            case "seek":
+                if (playlistPosition < 0) {
+                    response.put("error", "error running command");
+                    break;
+                }
+                seek(command.getDoubleValue(1), command.size() > 2 ? command.getString(2) : "relative", events);
+                break;
+            case "client_name":
+                response.put("data", "ipc-" + Integer.toHexString(System.identityHashCode(client)));
+                break;
+            case "get_version":
+                response.put("data", 0x010000);
+                break;
+            case "quit":
+            case "exit":
+                if (quitListener != null) {
+                    scheduler.execute(quitListener);
+                }
+                break;
+            default:
+                response.put("error", "invalid parameter");
+                break;
+        }
+    }
+
+    /**
+     * Get the observations of a client
+     *
+     * @param client The client
+     * @return The (mutable) list of observation
+     */
+    private List<Observation> observed(ClientInterface client) {
+        List<Observation> observed = observations.get(client);
+        if (observed == null) {
+            observed = new ArrayList<>();
+            observations.put(client, observed);
+        }
+        return observed;
+    }
+
+    /**
+     * Indicate if a property exist
+     *
+     * @param name The property name
+     * @return {@code true} if the property can be read
+     */
+    private boolean hasProperty(String name) {
+        return properties.containsKey(name) || COMPUTED_PROPERTIES.contains(name);
+    }
+
+    /**
+     * Get the current value of a property
+     *
+     * @param name The property name
+     * @return The value ({@code null} if not available)
+     */
+    private Object getProperty(String name) {
+        double duration = settings.getMediaDuration();
+        boolean loaded = playlistPosition >= 0;
+        switch (name) {
+            case "time-pos":
+            case "playback-time":
+                return loaded ? currentPosition() : null;
+            case "time-remaining":
+                return loaded ? duration - currentPosition() : null;
+            case "percent-pos":
+                return loaded ? currentPosition() * 100 / duration : null;
+            case "duration":
+                return loaded ? duration : null;
+            case "path":
+                return loaded ? playlist.get(playlistPosition) : null;
+            case "filename":
+                if (!loaded) {
+                    return null;
+                }
+                String path = playlist.get(playlistPosition);
+                return path.substring(path.lastIndexOf('/') + 1);
+            case "playlist-count":
+                return playlist.size();
+            case "playlist-pos":
+                return playlistPosition;
+            case "idle-active":
+                return !loaded;
+            case "metadata":
+                return loaded
+                        ? new JSONObject()
+                        .fluentPut("title", getProperty("filename"))
+                        .fluentPut("artist", "Simulator")
+                        .fluentPut("comment", padding())
+                        : null;
+            case "demuxer-cache-duration":
+                return loaded ? duration - currentPosition() : null;
+            case "demuxer-cache-state":
+                return loaded
+                        ? new JSONObject()
+                        .fluentPut("cache-end", duration)
+                        .fluentPut("reader-pts", currentPosition())
+                        .fluentPut("eof", true)
+                        .fluentPut("seeking-ranges", padding())
+                        : null;
+            default:
+                return properties.get(name);
+        }
+    }
+
+    /**
+     * Change a property
+     *
+     * @param name     The property name
+     * @param value    The new value
+     * @param response The response to fill
+     * @param events   The events to send after the response
+     */
+    private void setProperty(String name, Object value, JSONObject response, List<Outgoing> events) {
+        if ("time-pos".equals(name) || "playback-time".equals(name)) {
+            if (playlistPosition < 0 || !(value instanceof Number)) {
+                response.put("error", "property unavailable");
+                return;
+            }
+            seek(((Number) value).doubleValue(), "absolute", events);
+            return;
+        }
+        if (COMPUTED_PROPERTIES.contains(name)) {
+            response.put("error", "property unavailable");
+            return;
+        }
+        if ("pause".equals(name)) {
+            boolean pause = Boolean.TRUE.equals(value) || "yes".equals(value) || "true".equals(value);
+            value = pause;
+            if (pause) {
+                position = currentPosition();
+                playingSince = -1;
+                cancelEndOfMedia();
+            } else if (playlistPosition >= 0 && playingSince < 0) {
+                resume();
+            }
+        }
+        properties.put(name, value);
+        changed(name, events);
+    }
+
+    /**
+     * Add (or replace) a media in the playlist
+     *
+     * @param path   The media path
+     * @param mode   The loading mode ({@code replace}, {@code append} or {@code append-play})
+     * @param events The events to send after the response
+     */
+    private void loadFile(String path, String mode, List<Outgoing> events) {
+        if ("replace".equals(mode)) {
+            if (playlistPosition >= 0) {
+                endFile("stop", events);
+            }
+            playlist.clear();
+            playlist.add(path);
+            startFile(0, events);
+        } else {
+            playlist.add(path);
+            if ("append-play".equals(mode) && playlistPosition < 0) {
+                startFile(playlist.size() - 1, events);
+            }
+        }
+        changed("playlist-count", events);
+    }
+
+    /**
+     * Start the playback of a playlist entry
+     *
+     * @param index  The playlist position
+     * @param events The events to send after the response
+     */
+    private void startFile(int index, List<Outgoing> events) {
+        playlistPosition = index;
+        position = 0;
+        events.add(new Outgoing(null, event("start-file").toJSONString()));
+        events.add(new Outgoing(null, event("file-loaded").toJSONString()));
+        for (String name : Arrays.asList("path", "filename", "duration", "metadata", "idle-active", "playlist-pos")) {
+            changed(name, events);
+        }
+        if (!Boolean.TRUE.equals(properties.get("pause"))) {
+            resume();
+        }
+        events.add(new Outgoing(null, event("playback-restart").toJSONString()));
+    }
+
+    /**
+     * Stop the current media
+     *
+     * @param reason The end reason ({@code eof}, {@code stop}, etc.)
+     * @param events The events to send after the response
+     */
+    private void endFile(String reason, List<Outgoing> events) {
+        cancelEndOfMedia();
+        playingSince = -1;
+        position = 0;
+        events.add(new Outgoing(null, event("end-file").fluentPut("reason", reason).toJSONString()));
+    }
+
+    /**
+     * Stop the playback and clear the playlist
+     *
+     * @param events The events to send after the response
+     */
+    private void stop(List<Outgoing> events) {
+        if (playlistPosition >= 0) {
+            endFile("stop", events);
+        }
+        playlist.clear();
+        playlistPosition = -1;
+        events.add(new Outgoing(null, event("idle").toJSONString()));
+        changed("idle-active", events);
+        changed("playlist-count", events);
+    }
+
+    /**
+     * Change the playback position
+     *
+     * @param amount The amount
+     * @param type   The seek type ({@code relative}, {@code absolute}, {@code absolute-percent}, {@code relative-percent})
+     * @param events The events to send after the response
+     */
+    private void seek(double amount, String type, List<Outgoing> events) {
+        double duration = settings.getMediaDuration();
+        double target;
+        switch (type) {
+            case "absolute":
+                target = amount;
+                break;
+            case "absolute-percent":
+                target = duration * amount / 100;
+                break;
+            case "relative-percent":
+                target = currentPosition() + duration * amount / 100;
+                break;
+            default:
+                target = currentPosition() + amount;
+                break;
+        }
+        position = Math.max(0, Math.min(duration, target));
+        events.add(new Outgoing(null, event("seek").toJSONString()));
+        if (playingSince >= 0) {
+            resume();
+        }
+        events.add(new Outgoing(null, event("playback-restart").toJSONString()));
+        changed("time-pos", events);
+    }
+
+    /**
+     * Start (or restart) the playback clock, and schedule the end of the media
+     */
+    private void resume() {
+        cancelEndOfMedia();
+        playingSince = System.nanoTime();
+        long remaining = (long) ((settings.getMediaDuration() - position) * TimeUnit.SECONDS.toNanos(1));
+        endOfMedia = scheduler.schedule(this::mediaEnded, Math.max(0, remaining), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Cancel the scheduled end of the media
+     */
+    private void cancelEndOfMedia() {
+        if (endOfMedia != null) {
+            endOfMedia.cancel(false);
+            endOfMedia = null;
+        }
+    }
+
+    /**
+     * Called when the current media reach its end
+     */
+    private void mediaEnded() {
+        List<Outgoing> events = new ArrayList<>();
+        synchronized (this) {
+            endOfMedia = null;
+            position = settings.getMediaDuration();
+            endFile("eof", events);
+            if (playlistPosition + 1 < playlist.size()) {
+                startFile(playlistPosition + 1, events);
+            } else {
+                playlistPosition = -1;
+                events.add(new Outgoing(null, event("idle").toJSONString()));
+                changed("idle-active", events);
+            }
+        }
+        deliver(events);
+    }
+
+    /**
+     * Get the current playback position
+     *
+     * @return The position in seconds
+     */
+    private double currentPosition() {
+        if (playingSince < 0) {
+            return position;
+        }
+        double elapsed = (System.nanoTime() - playingSince) / (double) TimeUnit.SECONDS.toNanos(1);
+        return Math.min(settings.getMediaDuration(), position + elapsed);
+    }
+
+    /**
+     * Emit the property changes of the storm properties
+     */
+    private void stormTick() {
+        for (Map.Entry<ClientInterface, List<Observation>> entry : observations.entrySet()) {
+            List<Observation> observed;
+            synchronized (this) {
+                observed = new ArrayList<>(entry.getValue());
+            }
+            for (Observation observation : observed) {
+                if (settings.getStormProperties().contains(observation.name)) {
+                    String event;
+                    synchronized (this) {
+                        event = propertyChange(observation);
+                    }
+                    send(entry.getKey(), event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the property change of a property to the events to send (to the clients that observe it)
+     *
+     * @param name   The property name
+     * @param events The events to send
+     */
+    private void changed(String name, List<Outgoing> events) {
+        for (Map.Entry<ClientInterface, List<Observation>> entry : observations.entrySet()) {
+            for (Observation observation : entry.getValue()) {
+                if (observation.name.equals(name)) {
+                    events.add(new Outgoing(entry.getKey(), propertyChange(observation)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Build a {@code property-change} event
+     *
+     * @param observation The observation
+     * @return The JSON line
+     */
+    private String propertyChange(Observation observation) {
+        JSONObject event = event("property-change")
+                .fluentPut("id", observation.id)
+                .fluentPut("name", observation.name);
+        Object value = getProperty(observation.name);
+        if (value != null) {
+            event.put("data", value);
+        }
+        return event.toJSONString();
+    }
+
+    /**
+     * Build an event
+     *
+     * @param name The event name
+     * @return The event JSON
+     */
+    private static JSONObject event(String name) {
+        return new JSONObject().fluentPut("event", name);
+    }
+
+    /**
+     * Build the payload padding
+     *
+     * @return A string of {@link SimulatorSettings#getPayloadSize()} characters
+     */
+    private String padding() {
+        char[] padding = new char[settings.getPayloadSize()];
+        Arrays.fill(padding, 'x');
+        return new String(padding);
+    }
+
+    /**
+     * Send a command response, then the events it caused, with the configured latency.
+     * The whole output of the command is delayed, so (like MPV) the events never overtake their response,
+     * and as every output wait for the same delay on the same thread, the commands outputs stay in order.
+     *
+     * @param client   The client
+     * @param response The response
+     * @param events   The events to send after the response
+     */
+    private void reply(final ClientInterface client, JSONObject response, final List<Outgoing> events) {
+        final String line = response.toJSONString();
+        if (settings.getResponseLatency() <= 0) {
+            send(client, line);
+            deliver(events);
+            return;
+        }
+        scheduler.schedule(() -> {
+            send(client, line);
+            deliver(events);
+        }, settings.getResponseLatency(), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Send the events, to their client or to every client
+     *
+     * @param events The events to send
+     */
+    private void deliver(List<Outgoing> events) {
+        for (Outgoing event : events) {
+            if (event.client != null) {
+                send(event.client, event.line);
+                continue;
+            }
+            for (ClientInterface client : observations.keySet()) {
+                send(client, event.line);
+            }
+        }
+    }
+
+    /**
+     * Send a line to a client, disconnect it if it fail
+     *
+     * @param client The client
+     * @param line   The JSON line
+     */
+    private void send(ClientInterface client, String line) {
+        try {
+            client.send(line);
+        } catch (IOException e) {
+            logger.debug("Unable to send to the client, disconnecting it", e);
+            disconnect(client);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * A line to send after a command response
+     */
+    private static class Outgoing {
+        /**
+         * The recipient ({@code null} for every client)
+         */
+        private final ClientInterface client;
+        /**
+         * The JSON line
+         */
+        private final String line;
+
+        Outgoing(ClientInterface client, String line) {
+            this.client = client;
+            this.line = line;
+        }
+    }
+
+    /**
+     * An observed property
+     */
+    private static class Observation {
+        /**
+         * The observation id
+         */
+        private final long id;
+        /**
+         * The property name
+         */
+        private final String name;
+
+        Observation(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
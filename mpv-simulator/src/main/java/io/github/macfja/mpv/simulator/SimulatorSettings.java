@@ -0,0 +1,133 @@
+package io.github.macfja.mpv.simulator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The knobs of the simulated MPV.
+ *
+ * @author MacFJA
+ */
+public class SimulatorSettings {
+    /**
+     * The delay (in microseconds) before a command response is sent
+     */
+    private long responseLatency = 0;
+    /**
+     * The number of event storm ticks per second ({@code 0} to disable the storm)
+     */
+    private int eventRate = 0;
+    /**
+     * The number of extra bytes added to the payload of big properties (like {@code metadata})
+     */
+    private int payloadSize = 0;
+    /**
+     * The duration (in seconds) of every loaded media
+     */
+    private double mediaDuration = 60;
+    /**
+     * The properties that change at every event storm tick (if observed)
+     */
+    private List<String> stormProperties = Arrays.asList("time-pos", "percent-pos", "time-remaining", "demuxer-cache-state");
+
+    /**
+     * Get the delay before a command response (and the events caused by the command) is sent
+     *
+     * @return The delay in microseconds
+     */
+    public long getResponseLatency() {
+        return responseLatency;
+    }
+
+    /**
+     * Set the delay before a command response (and the events caused by the command) is sent
+     *
+     * @param responseLatency The delay in microseconds
+     * @return The settings
+     */
+    public SimulatorSettings setResponseLatency(long responseLatency) {
+        this.responseLatency = responseLatency;
+        return this;
+    }
+
+    /**
+     * Get the number of event storm ticks per second
+     *
+     * @return The rate ({@code 0} if disabled)
+     */
+    public int getEventRate() {
+        return eventRate;
+    }
+
+    /**
+     * Set the number of event storm ticks per second.
+     * At every tick, a {@code property-change} event is sent for every observed storm property.
+     *
+     * @param eventRate The rate ({@code 0} to disable)
+     * @return The settings
+     */
+    public SimulatorSettings setEventRate(int eventRate) {
+        this.eventRate = eventRate;
+        return this;
+    }
+
+    /**
+     * Get the number of extra bytes added to big properties
+     *
+     * @return The size in bytes
+     */
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * Set the number of extra bytes added to big properties ({@code metadata} and {@code demuxer-cache-state})
+     *
+     * @param payloadSize The size in bytes
+     * @return The settings
+     */
+    public SimulatorSettings setPayloadSize(int payloadSize) {
+        this.payloadSize = payloadSize;
+        return this;
+    }
+
+    /**
+     * Get the duration of every loaded media
+     *
+     * @return The duration in seconds
+     */
+    public double getMediaDuration() {
+        return mediaDuration;
+    }
+
+    /**
+     * Set the duration of every loaded media
+     *
+     * @param mediaDuration The duration in seconds
+     * @return The settings
+     */
+    public SimulatorSettings setMediaDuration(double mediaDuration) {
+        this.mediaDuration = mediaDuration;
+        return this;
+    }
+
+    /**
+     * Get the properties that change at every event storm tick
+     *
+     * @return The list of property name
+     */
+    public List<String> getStormProperties() {
+        return stormProperties;
+    }
+
+    /**
+     * Set the properties that change at every event storm tick
+     *
+     * @param stormProperties The list of property name
+     * @return The settings
+     */
+    public SimulatorSettings setStormProperties(List<String> stormProperties) {
+        this.stormProperties = stormProperties;
+        return this;
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.macfja.mpv.simulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Expose a simulated MPV on a Unix socket, like the {@code --input-ipc-server} option of MPV.
+ * Every client is served by its own thread.
+ *
+ * @author MacFJA
+ */
+public class UnixSocketServer implements Closeable {
+    /**
+     * The class logger
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    /**
+     * The simulated MPV
+     */
+    private final SimulatedMpv mpv;
+    /**
+     * The path of the socket
+     */
+    private final Path socketPath;
+    /**
+     * The listening socket
+     */
+    private ServerSocketChannel server;
+
+    /**
+     * Constructor.
+     *
+     * @param mpv        The simulated MPV to expose
+     * @param socketPath The path of the socket to create
+     */
+    public UnixSocketServer(SimulatedMpv mpv, Path socketPath) {
+        this.mpv = mpv;
+        this.socketPath = socketPath;
+    }
+
+    /**
+     * Create the socket and start accepting clients
+     *
+     * @throws IOException If the socket can't be created
+     */
+    public synchronized void start() throws IOException {
+        Files.deleteIfExists(socketPath);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+
+        Thread acceptor = new Thread(this::accept, "mpv-simulator-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Simulated MPV listening on " + socketPath);
+    }
+
+    /**
+     * Accept the clients, until the server is closed
+     */
+    private void accept() {
+        while (server.isOpen()) {
+            try {
+                final SocketChannel channel = server.accept();
+                Thread reader = new Thread(() -> serve(channel), "mpv-simulator-client");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Unable to accept a client", e);
+            }
+        }
+    }
+
+    /**
+     * Read the lines of a client, and give them to the simulated MPV
+     *
+     * @param channel The client connection
+     */
+    private void serve(final SocketChannel channel) {
+        ClientInterface client = new ClientInterface() {
+            @Override
+            public void send(String line) throws IOException {
+                ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+                synchronized (this) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            }
+        };
+        mpv.connect(client);
+
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte value = buffer.get();
+                    if (value != '\n') {
+                        line.write(value);
+                        continue;
+                    }
+                    mpv.receive(client, line.toString(StandardCharsets.UTF_8.name()));
+                    line.reset();
+                }
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            logger.debug("Client connection lost", e);
+        } finally {
+            mpv.disconnect(client);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Unable to close the client connection", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (server != null) {
+            server.close();
+            server = null;
+        }
+        Files.deleteIfExists(socketPath);
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.macfja.mpv.simulator;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import io.github.macfja.mpv.communication.handling.NamedEventHandler;
+import io.github.macfja.mpv.communication.handling.ResponseHandler;
+import io.github.macfja.mpv.wrapper.ExistingService;
+import io.github.macfja.mpv.wrapper.Shorthand;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SimulatedMpvTest {
+    @Test
+    public void testLoopback() throws IOException, InterruptedException {
+        final CountDownLatch loaded = new CountDownLatch(1);
+        try (SimulatedMpv mpv = new SimulatedMpv(new SimulatorSettings().setMediaDuration(10));
+             Shorthand service = new Shorthand(new ExistingService("simulator", new LoopbackCommunication(mpv)))) {
+            service.registerEvent(new NamedEventHandler("file-loaded") {
+                @Override
+                public Runnable doHandle(JSONObject message) {
+                    loaded.countDown();
+                    return null;
+                }
+            });
+            Assert.assertTrue(ResponseHandler.isResultSuccess(service.getProperty("mpv-version")));
+            service.addMedia("/media/track.mp3", false);
+            Assert.assertTrue(loaded.await(1, TimeUnit.SECONDS));
+            Assert.assertEquals("/media/track.mp3", service.getProperty("path", String.class));
+            Assert.assertEquals(10, service.getProperty("duration", Double.class), 0);
+
+            service.pause();
+            service.seek(5, Shorthand.Seek.Absolute);
+            Assert.assertEquals(5, service.getProperty("time-pos", Double.class), 0);
+            service.seek(50, Shorthand.Seek.RelativePercent);
+            Assert.assertEquals(10, service.getProperty("time-pos", Double.class), 0);
+        }
+    }
+
+    @Test
+    public void testLatencyKeepsOrder() throws InterruptedException {
+        final List<JSONObject> lines = new CopyOnWriteArrayList<>();
+        try (SimulatedMpv mpv = new SimulatedMpv(new SimulatorSettings().setResponseLatency(20000))) {
+            ClientInterface client = line -> lines.add(JSONObject.parseObject(line));
+            mpv.connect(client);
+            mpv.receive(client, "{\"command\":[\"observe_property\",1,\"volume\"],\"request_id\":1}");
+            mpv.receive(client, "{\"command\":[\"set_property\",\"volume\",50],\"request_id\":2}");
+
+            long deadline = System.currentTimeMillis() + 1000;
+            while (lines.size() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+        // Each response come before the events of its command, and the commands outputs are not mixed
+        Assert.assertEquals(4, lines.size());
+        Assert.assertEquals(1, (int) lines.get(0).getInteger("request_id"));
+        Assert.assertEquals(100, (int) lines.get(1).getInteger("data"));
+        Assert.assertEquals(2, (int) lines.get(2).getInteger("request_id"));
+        Assert.assertEquals("property-change", lines.get(3).getString("event"));
+        Assert.assertEquals(50, (int) lines.get(3).getInteger("data"));
+    }
+
+    @Test
+    public void testUnixSocket() throws IOException {
+        Path socket = Files.createTempDirectory("mpv-simulator").resolve("mpv.sock");
+        try (SimulatedMpv mpv = new SimulatedMpv();
+             UnixSocketServer server = new UnixSocketServer(mpv, socket)) {
+            server.start();
+            try (Shorthand service = new Shorthand(new ExistingService(socket.toString()))) {
+                service.setProperty("volume", "13");
+                Assert.assertEquals(13, (int) service.getProperty("volume", Integer.class));
+                Assert.assertFalse(ResponseHandler.isResultSuccess(service.getProperty("x-unknown")));
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.handling.HandlerAwareInterface;
+import io.github.macfja.mpv.communication.handling.NamedEventHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+
+/**
+ * The registry of the threads (or tasks) waiting for an event of a service.
+ * <p>
+ * The waiters are indexed by event name: each waited event has a single handler (registered while there are waiters),
+ * that complete the futures of the waiters whose predicate accept the event.
+ * The futures are completed by the thread that read MPV messages.
+ *
+ * @author MacFJA
+ */
+final class EventWaiters {
+    /**
+     * The handlers of the waited events (by event name)
+     */
+    private final Map<String, Dispatcher> dispatchers = new HashMap<>();
+    /**
+     * Where the handlers are registered
+     */
+    private final HandlerAwareInterface handlers;
+
+    /**
+     * Constructor
+     *
+     * @param handlers Where the handlers are registered
+     */
+    EventWaiters(HandlerAwareInterface handlers) {
+        this.handlers = handlers;
+    }
+
+    /**
+     * Wait for an event
+     *
+     * @param eventName The name of the event
+     * @param predicate The condition on the event message ({@code null} to accept any)
+     * @return The future event message (cancel it to stop waiting)
+     */
+    CompletableFuture<JSONObject> await(final String eventName, Predicate<JSONObject> predicate) {
+        final Waiter waiter = new Waiter(predicate);
+        final Dispatcher dispatcher;
+        synchronized (this) {
+            Dispatcher current = dispatchers.get(eventName);
+            if (current == null) {
+                current = new Dispatcher(eventName);
+                dispatchers.put(eventName, current);
+                handlers.addMessageHandler(current);
+            }
+            current.waiters.add(waiter);
+            dispatcher = current;
+        }
+        // Whatever the completion (event, timeout, cancel), the waiter leave the registry
+        waiter.future.whenComplete((event, error) -> remove(dispatcher, waiter));
+        return waiter.future;
+    }
+
+    /**
+     * Get the number of waiters
+     *
+     * @return The number of waiters (of all events)
+     */
+    synchronized int size() {
+        int size = 0;
+        for (Dispatcher dispatcher : dispatchers.values()) {
+            size += dispatcher.waiters.size();
+        }
+        return size;
+    }
+
+    /**
+     * Remove a waiter, and the handler of its event if it was the last one
+     *
+     * @param dispatcher The handler of the event
+     * @param waiter     The waiter to remove
+     */
+    private synchronized void remove(Dispatcher dispatcher, Waiter waiter) {
+        dispatcher.waiters.remove(waiter);
+        if (dispatcher.waiters.isEmpty() && dispatchers.get(dispatcher.eventName) == dispatcher) {
+            dispatchers.remove(dispatcher.eventName);
+            handlers.removeMessageHandler(dispatcher);
+        }
+    }
+
+    /**
+     * A waiter: its condition and its future
+     */
+    private static class Waiter {
+        /**
+         * The condition on the event message ({@code null} to accept any)
+         */
+        private final Predicate<JSONObject> predicate;
+        /**
+         * The future event message
+         */
+        private final CompletableFuture<JSONObject> future = new CompletableFuture<>();
+
+        /**
+         * Constructor
+         *
+         * @param predicate The condition on the event message ({@code null} to accept any)
+         */
+        Waiter(Predicate<JSONObject> predicate) {
+            this.predicate = predicate;
+        }
+
+        /**
+         * Complete the future if the event match the condition
+         *
+         * @param message The event message
+         */
+        void offer(JSONObject message) {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                if (predicate == null || predicate.test(message)) {
+                    future.complete(message);
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * The handler of a waited event
+     */
+    private static class Dispatcher extends NamedEventHandler {
+        /**
+         * The name of the event
+         */
+        private final String eventName;
+        /**
+         * The waiters of the event
+         */
+        private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Constructor
+         *
+         * @param eventName The name of the event
+         */
+        Dispatcher(String eventName) {
+            super(eventName);
+            this.eventName = eventName;
+        }
+
+        @Override
+        public Runnable doHandle(JSONObject message) {
+            for (Waiter waiter : waiters) {
+                waiter.offer(message);
+            }
+            // Everything is done in the reader thread, no need of a worker
+            return null;
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package io.github.macfja.mpv;
 
 import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.Command;
+import io.github.macfja.mpv.communication.MpvResponse;
 import io.github.macfja.mpv.communication.handling.NamedEventHandler;
 import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import io.github.macfja.mpv.reactive.EventPublisher;
+import io.github.macfja.mpv.reactive.PropertyPublisher;
+import io.github.macfja.mpv.reactive.PublisherInterface;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  * MpvService Interface.
  * Define the list of available methods.
+ * The methods added after the first version have a default implementation, built on the original ones.
+ * <p>
+ * The futures returned by the asynchronous methods are completed by the thread that read MPV messages.
+ * Dependent actions should not block (or use the {@code *Async} methods of the future with an executor).
  *
  * @author MacFJA
  */
@@ -26,6 +40,111 @@ public interface MpvService extends Closeable {
      */
     String sendCommand(String command, List<? extends Serializable> arguments) throws IOException;
 
+    /**
+     * Send a command to Mpv, without blocking until the result is received.
+     * By default, the command is sent (and its result waited) by the calling thread.
+     *
+     * @param command   The command to send
+     * @param arguments The command arguments
+     * @return The future raw result of the command (completed exceptionally if the command can't be sent)
+     */
+    default CompletableFuture<String> sendCommandAsync(String command, List<? extends Serializable> arguments) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            result.complete(sendCommand(command, arguments));
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Send several commands to Mpv at once (written back-to-back), and wait for all the results.
+     * By default, the commands are sent one after the other.
+     *
+     * @param commands The commands to send
+     * @return The raw results, in the same order as the commands ({@code null} if a response is not received in time)
+     * @throws IOException if an I/O error occurs
+     */
+    default List<String> sendCommands(List<Command> commands) throws IOException {
+        List<String> results = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            results.add(sendCommand(command.getName(), command.getArguments()));
+        }
+        return results;
+    }
+
+    /**
+     * Send several commands to Mpv at once (written back-to-back), without blocking until the results are received.
+     * By default, each command is sent with {@link #sendCommandAsync(String, List)}.
+     *
+     * @param commands The commands to send
+     * @return The future raw results, in the same order as the commands
+     */
+    default List<CompletableFuture<String>> sendCommandsAsync(List<Command> commands) {
+        List<CompletableFuture<String>> results = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            results.add(sendCommandAsync(command.getName(), command.getArguments()));
+        }
+        return results;
+    }
+
+    /**
+     * Send a command to Mpv, and wait for its response.
+     * By default, the raw result of {@link #sendCommand(String, List)} is parsed.
+     *
+     * @param command The command to send
+     * @return The response ({@code null} if it's not received in time)
+     * @throws IOException if an I/O error occurs
+     */
+    default MpvResponse execute(Command command) throws IOException {
+        String result = sendCommand(command.getName(), command.getArguments());
+        return result == null ? null : new MpvResponse(JSONObject.parseObject(result));
+    }
+
+    /**
+     * Send a command to Mpv, without blocking until the response is received.
+     * By default, the raw result of {@link #sendCommandAsync(String, List)} is parsed.
+     *
+     * @param command The command to send
+     * @return The future response (completed exceptionally if the command can't be sent)
+     */
+    default CompletableFuture<MpvResponse> executeAsync(Command command) {
+        return sendCommandAsync(command.getName(), command.getArguments())
+                .thenApply(result -> result == null ? null : new MpvResponse(JSONObject.parseObject(result)));
+    }
+
+    /**
+     * Send several commands to Mpv at once (written back-to-back), and wait for all the responses.
+     * By default, the commands are executed one after the other.
+     *
+     * @param commands The commands to send
+     * @return The responses, in the same order as the commands ({@code null} if a response is not received in time)
+     * @throws IOException if an I/O error occurs
+     */
+    default List<MpvResponse> execute(List<Command> commands) throws IOException {
+        List<MpvResponse> results = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            results.add(execute(command));
+        }
+        return results;
+    }
+
+    /**
+     * Send several commands to Mpv at once (written back-to-back), without blocking until the responses are received.
+     * By default, each command is sent with {@link #executeAsync(Command)}.
+     *
+     * @param commands The commands to send
+     * @return The future responses, in the same order as the commands
+     */
+    default List<CompletableFuture<MpvResponse>> executeAsync(List<Command> commands) {
+        List<CompletableFuture<MpvResponse>> results = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            results.add(executeAsync(command));
+        }
+        return results;
+    }
+
     /**
      * Send a command to Mpv (don't wait for the result)
      *
@@ -55,6 +174,28 @@ public interface MpvService extends Closeable {
      */
     String setProperty(String name, Boolean value) throws IOException;
 
+    /**
+     * Set the value of a Mpv string property, without blocking until the result is received
+     *
+     * @param name  The property name
+     * @param value The value
+     * @return The future raw result
+     */
+    default CompletableFuture<String> setPropertyAsync(String name, String value) {
+        return sendCommandAsync("set_property", Arrays.asList(name, value));
+    }
+
+    /**
+     * Set the value of a Mpv boolean property, without blocking until the result is received
+     *
+     * @param name  The property name
+     * @param value The value
+     * @return The future raw result
+     */
+    default CompletableFuture<String> setPropertyAsync(String name, Boolean value) {
+        return sendCommandAsync("set_property", Arrays.asList(name, value));
+    }
+
     /**
      * Get the value of a Mpv property
      *
@@ -75,6 +216,107 @@ public interface MpvService extends Closeable {
      */
     <T> T getProperty(String name, Class<T> type) throws IOException;
 
+    /**
+     * Get the value of a Mpv property, without blocking until the result is received
+     *
+     * @param name The property name
+     * @return The future raw result
+     */
+    default CompletableFuture<String> getPropertyAsync(String name) {
+        return sendCommandAsync("get_property", Collections.singletonList(name));
+    }
+
+    /**
+     * Get the value of a Mpv property, without blocking until the result is received
+     *
+     * @param name The property name
+     * @param type The classname of the value data type
+     * @param <T>  The classname of the value data type
+     * @return The future property result
+     */
+    default <T> CompletableFuture<T> getPropertyAsync(String name, Class<T> type) {
+        return executeAsync(new Command("get_property", name))
+                .thenApply(response -> response == null ? null : response.getData(type));
+    }
+
+    /**
+     * Get the value of a numeric Mpv property, as a double.
+     * By default, the value is read with {@link #getProperty(String, Class)}.
+     *
+     * @param name         The property name
+     * @param defaultValue The value to return if the property is unavailable (or not a number)
+     * @return The property value
+     * @throws IOException if an I/O error occurs
+     */
+    default double getDoubleProperty(String name, double defaultValue) throws IOException {
+        Object value = getProperty(name, Object.class);
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * Get the value of a numeric Mpv property, as a long.
+     * By default, the value is read with {@link #getProperty(String, Class)}.
+     *
+     * @param name         The property name
+     * @param defaultValue The value to return if the property is unavailable (or not a number)
+     * @return The property value
+     * @throws IOException if an I/O error occurs
+     */
+    default long getLongProperty(String name, long defaultValue) throws IOException {
+        Object value = getProperty(name, Object.class);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    /**
+     * Get the value of a boolean Mpv property.
+     * By default, the value is read with {@link #getProperty(String, Class)}.
+     *
+     * @param name         The property name
+     * @param defaultValue The value to return if the property is unavailable (or not a boolean)
+     * @return The property value
+     * @throws IOException if an I/O error occurs
+     */
+    default boolean getBooleanProperty(String name, boolean defaultValue) throws IOException {
+        Object value = getProperty(name, Object.class);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * Get the value of a numeric Mpv property as a double, without blocking until the result is received
+     *
+     * @param name         The property name
+     * @param defaultValue The value to use if the property is unavailable (or not a number)
+     * @return The future property value
+     */
+    default CompletableFuture<Double> getDoublePropertyAsync(String name, double defaultValue) {
+        return getPropertyAsync(name, Object.class)
+                .thenApply(value -> value instanceof Number ? ((Number) value).doubleValue() : defaultValue);
+    }
+
+    /**
+     * Get the value of a numeric Mpv property as a long, without blocking until the result is received
+     *
+     * @param name         The property name
+     * @param defaultValue The value to use if the property is unavailable (or not a number)
+     * @return The future property value
+     */
+    default CompletableFuture<Long> getLongPropertyAsync(String name, long defaultValue) {
+        return getPropertyAsync(name, Object.class)
+                .thenApply(value -> value instanceof Number ? ((Number) value).longValue() : defaultValue);
+    }
+
+    /**
+     * Get the value of a boolean Mpv property, without blocking until the result is received
+     *
+     * @param name         The property name
+     * @param defaultValue The value to use if the property is unavailable (or not a boolean)
+     * @return The future property value
+     */
+    default CompletableFuture<Boolean> getBooleanPropertyAsync(String name, boolean defaultValue) {
+        return getPropertyAsync(name, Object.class)
+                .thenApply(value -> value instanceof Boolean ? (Boolean) value : defaultValue);
+    }
+
     /**
      * Register an event listener
      *
@@ -82,6 +324,13 @@ public interface MpvService extends Closeable {
      */
     void registerEvent(NamedEventHandler observer);
 
+    /**
+     * Remove an event handler
+     *
+     * @param observer The handler to remove
+     */
+    void unregisterEvent(NamedEventHandler observer);
+
     /**
      * Register to a Mpv property changes
      *
@@ -145,4 +394,54 @@ public interface MpvService extends Closeable {
      * @param timeout   The amount of millisec to wait before considering that the event will not occur
      */
     void waitForEvent(String eventName, int timeout);
+
+    /**
+     * Wait for an event to occurs, without blocking.
+     * Any number of threads can wait for the same (or different) events.
+     *
+     * @param eventName The name of the event to wait
+     * @param timeout   The amount of millisec to wait before failing with a {@link java.util.concurrent.TimeoutException}
+     *                  ({@code 0} to wait until the future is cancelled)
+     * @return The future event message
+     */
+    default CompletableFuture<JSONObject> awaitEvent(String eventName, long timeout) {
+        return awaitEvent(eventName, null, timeout);
+    }
+
+    /**
+     * Wait for an event matching a condition to occurs, without blocking.
+     * Any number of threads can wait for the same (or different) events.
+     * The condition is tested by the thread that read MPV messages, so it must be fast.
+     *
+     * @param eventName The name of the event to wait
+     * @param predicate The condition on the event message (like its {@code reason} for {@code end-file}),
+     *                  {@code null} to accept any
+     * @param timeout   The amount of millisec to wait before failing with a {@link java.util.concurrent.TimeoutException}
+     *                  ({@code 0} to wait until the future is cancelled)
+     * @return The future event message
+     */
+    CompletableFuture<JSONObject> awaitEvent(String eventName, Predicate<JSONObject> predicate, long timeout);
+
+    /**
+     * Get the events of a given name as a stream, that honour the subscribers demand.
+     * Each subscriber has a bounded buffer (the oldest events are dropped when a subscriber is too slow).
+     *
+     * @param eventName The name of the event
+     * @return The publisher of the event messages
+     */
+    default PublisherInterface<JSONObject> eventPublisher(String eventName) {
+        return new EventPublisher(this, eventName);
+    }
+
+    /**
+     * Get the values of a property as a stream, that honour the subscribers demand.
+     * The property is observed while there are subscribers.
+     * Each subscriber has a bounded buffer (the oldest values are dropped when a subscriber is too slow).
+     *
+     * @param propertyName The name of the property
+     * @return The publisher of the property values
+     */
+    default PublisherInterface<Object> propertyPublisher(String propertyName) {
+        return new PropertyPublisher(this, propertyName);
+    }
 }
@@ -0,0 +1,183 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The registry of the property observers of a service.
+ * <p>
+ * MPV observe a property once per group id, whatever the number of observers:
+ * the observations are reference counted, so the service know when to send {@code observe_property}
+ * (first observer of a property in a group) and {@code unobserve_property} (last observer of a group).
+ * As {@code unobserve_property} remove a whole group, a property stay observed by MPV as long as its group is alive,
+ * even without observer: it's not observed again when a new observer of the same group come.
+ *
+ * @author MacFJA
+ */
+final class PropertyObservations {
+    /**
+     * The properties observed by MPV (by group id), until their group is unobserved
+     */
+    private final Map<Integer, Set<String>> observedById = new HashMap<>();
+    /**
+     * The number of observers of each group (by group id)
+     */
+    private final Map<Integer, Integer> countById = new HashMap<>();
+    /**
+     * The observers (by property name)
+     */
+    private final Map<String, List<PropertyObserver>> observersByName = new HashMap<>();
+
+    /**
+     * Indicate if an observer is registered
+     *
+     * @param observer The observer
+     * @return {@code true} if the observer is registered
+     */
+    synchronized boolean contains(PropertyObserver observer) {
+        List<PropertyObserver> observers = observersByName.get(observer.getPropertyName());
+        return observers != null && observers.contains(observer);
+    }
+
+    /**
+     * Register an observer, if not already registered (the check and the registration are atomic)
+     *
+     * @param observer The observer
+     * @return What the service must do for the observer
+     */
+    synchronized Registration add(PropertyObserver observer) {
+        List<PropertyObserver> observers = observersByName.get(observer.getPropertyName());
+        if (observers == null) {
+            observers = new ArrayList<>();
+            observersByName.put(observer.getPropertyName(), observers);
+        } else if (observers.contains(observer)) {
+            return Registration.DUPLICATE;
+        }
+        observers.add(observer);
+        increment(countById, observer.getId());
+        Set<String> observed = observedById.get(observer.getId());
+        if (observed == null) {
+            observed = new HashSet<>();
+            observedById.put(observer.getId(), observed);
+        }
+        return observed.add(observer.getPropertyName()) ? Registration.OBSERVE : Registration.JOIN;
+    }
+
+    /**
+     * Unregister an observer
+     *
+     * @param observer The observer
+     * @return {@code true} if it was the last observer of its group (the group must be unobserved)
+     */
+    synchronized boolean remove(PropertyObserver observer) {
+        List<PropertyObserver> observers = observersByName.get(observer.getPropertyName());
+        if (observers == null || !observers.remove(observer)) {
+            return false;
+        }
+        if (observers.isEmpty()) {
+            observersByName.remove(observer.getPropertyName());
+        }
+        if (decrement(countById, observer.getId()) > 0) {
+            return false;
+        }
+        observedById.remove(observer.getId());
+        return true;
+    }
+
+    /**
+     * Unregister an observer whose observation couldn't be sent to MPV
+     *
+     * @param observer The observer (just added with {@link #add(PropertyObserver)}, that returned {@link Registration#OBSERVE})
+     */
+    synchronized void cancel(PropertyObserver observer) {
+        Set<String> observed = observedById.get(observer.getId());
+        if (observed != null) {
+            observed.remove(observer.getPropertyName());
+        }
+        remove(observer);
+    }
+
+    /**
+     * Get the observers of a property
+     *
+     * @param propertyName The property name
+     * @return A copy of the list of observers
+     */
+    synchronized List<PropertyObserver> getObservers(String propertyName) {
+        List<PropertyObserver> observers = observersByName.get(propertyName);
+        return observers == null ? new ArrayList<PropertyObserver>() : new ArrayList<>(observers);
+    }
+
+    /**
+     * Get the number of properties observed in MPV
+     *
+     * @return The number of observations
+     */
+    synchronized int getObservationCount() {
+        int count = 0;
+        for (Set<String> observed : observedById.values()) {
+            count += observed.size();
+        }
+        return count;
+    }
+
+    /**
+     * Increment a counter
+     *
+     * @param counters The counters
+     * @param key      The key of the counter
+     * @param <K>      The key type
+     * @return The new value
+     */
+    private static <K> int increment(Map<K, Integer> counters, K key) {
+        Integer count = counters.get(key);
+        int updated = count == null ? 1 : count + 1;
+        counters.put(key, updated);
+        return updated;
+    }
+
+    /**
+     * Decrement a counter, the counter is removed when it reach 0
+     *
+     * @param counters The counters
+     * @param key      The key of the counter
+     * @param <K>      The key type
+     * @return The new value
+     */
+    private static <K> int decrement(Map<K, Integer> counters, K key) {
+        Integer count = counters.get(key);
+        int updated = count == null ? 0 : count - 1;
+        if (updated <= 0) {
+            counters.remove(key);
+            return 0;
+        }
+        counters.put(key, updated);
+        return updated;
+    }
+
+    /**
+     * The outcome of the registration of an observer
+     */
+    enum Registration {
+        /**
+         * The observer is already registered, nothing to do
+         */
+        DUPLICATE,
+        /**
+         * The property is not yet observed by MPV in the group of the observer: it must be observed
+         * (MPV send its current value)
+         */
+        OBSERVE,
+        /**
+         * The property is already observed by MPV in the group of the observer: it must not be observed again,
+         * and as MPV won't send the current value, it must be read for the observer
+         */
+        JOIN
+    }
+}
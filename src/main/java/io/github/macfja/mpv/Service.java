@@ -1,25 +1,51 @@
 package io.github.macfja.mpv;
 
 import com.alibaba.fastjson.JSONObject;
-import io.github.macfja.mpv.communication.Communication;
-import io.github.macfja.mpv.communication.handling.AbstractEventHandler;
+import io.github.macfja.mpv.communication.AbstractCommunication;
+import io.github.macfja.mpv.communication.Command;
+import io.github.macfja.mpv.communication.CommunicationInterface;
+import io.github.macfja.mpv.communication.InterceptorInterface;
+import io.github.macfja.mpv.communication.MpvResponse;
+import io.github.macfja.mpv.communication.RawResponseHandlerInterface;
 import io.github.macfja.mpv.communication.handling.AbstractMessageHandler;
+import io.github.macfja.mpv.communication.handling.HandlerExecutor;
 import io.github.macfja.mpv.communication.handling.MessageHandlerInterface;
 import io.github.macfja.mpv.communication.handling.NamedEventHandler;
 import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import io.github.macfja.mpv.communication.handling.RateLimitedPropertyObserver;
+import io.github.macfja.mpv.communication.handling.ResponseHandler;
+import io.github.macfja.mpv.communication.handling.SerialExecutor;
+import io.github.macfja.mpv.metrics.MetricNames;
+import io.github.macfja.mpv.metrics.MetricsRegistryInterface;
+import io.github.macfja.mpv.metrics.NoopMetricsRegistry;
+import io.github.macfja.mpv.reactive.AbstractMpvPublisher;
+import io.github.macfja.mpv.reactive.EventPublisher;
+import io.github.macfja.mpv.reactive.PropertyPublisher;
+import io.github.macfja.mpv.reactive.PublisherInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 
 /**
  * The default/base implementation of MpvService.
@@ -28,9 +54,29 @@ import java.util.Map;
  */
 public class Service implements MpvService {
     /**
-     * The internal observer
+     * The maximum time (in milliseconds) to wait for a command response
      */
-    private final SynchronousSend waitFor = new SynchronousSend();
+    private static final long COMMAND_TIMEOUT = 5000;
+    /**
+     * The maximum time (in milliseconds) to wait for MPV to be ready after its start
+     */
+    private static final long STARTUP_TIMEOUT = 10000;
+    /**
+     * The maximum time (in milliseconds) to wait for the response of the handshake command
+     */
+    private static final long HANDSHAKE_TIMEOUT = 1000;
+    /**
+     * The internal observer of command responses
+     */
+    private final PendingRequests pendingRequests = new PendingRequests();
+    /**
+     * The registered property observers
+     */
+    private final PropertyObservations observations = new PropertyObservations();
+    /**
+     * The threads (or tasks) waiting for an event
+     */
+    private final EventWaiters eventWaiters;
     /**
      * Indicate if the class is ready to use
      */
@@ -50,14 +96,27 @@ public class Service implements MpvService {
     /**
      * The instance that will communicate with MPV
      */
-    protected Communication ioCommunication = new Communication();
+    protected CommunicationInterface ioCommunication;
     /**
-     * The name of the event that we will wait
-     *
-     * @see Service#waitForEvent(String, int)
-     * @see Service#waitForEvent(String)
+     * The executor of the message handlers workers ({@code null} for the handler default)
+     */
+    private volatile Executor handlerExecutor;
+    /**
+     * Indicate if each handler receive its messages in order
+     */
+    private volatile boolean orderedDispatch = false;
+    /**
+     * The executors given by the service to the handlers
+     */
+    private final Map<MessageHandlerInterface, Executor> assignedExecutors = new ConcurrentHashMap<>();
+    /**
+     * The scheduler of the rate limited observers timers (created on first use)
+     */
+    private volatile ScheduledExecutorService scheduler;
+    /**
+     * The registry of the measures
      */
-    private String waitedEvent;
+    private volatile MetricsRegistryInterface metrics = NoopMetricsRegistry.INSTANCE;
     /**
      * The class logger
      */
@@ -77,69 +136,236 @@ public class Service implements MpvService {
      * @param mpvPath Path to MPV binary
      */
     public Service(String mpvPath) {
+        this(mpvPath, AbstractCommunication.createDefault());
+    }
+
+    /**
+     * The class constructor.
+     *
+     * @param mpvPath       Path to MPV binary
+     * @param communication The communication (transport) to use to talk with MPV
+     */
+    public Service(String mpvPath, CommunicationInterface communication) {
+        this(mpvPath, null, communication);
+    }
+
+    /**
+     * The class constructor.
+     *
+     * @param mpvPath       Path to MPV binary
+     * @param socketPath    The path to the MPV IPC socket ({@code null} to use a new unique one)
+     * @param communication The communication (transport) to use to talk with MPV
+     * @see #createSocketPath()
+     */
+    public Service(String mpvPath, String socketPath, CommunicationInterface communication) {
         this.mpvPath = mpvPath;
+        this.socketPath = socketPath == null ? createSocketPath() : socketPath;
+        ioCommunication = communication;
 
-        socketPath = System.getProperty("java.io.tmpdir") + this.getClass().getName();
-        ioCommunication.setSocketPath(socketPath);
-        ioCommunication.addMessageHandler(new AbstractEventHandler() {
-            @Override
-            public boolean canHandle(String eventName) {
-                return eventName.equals(waitedEvent);
-            }
+        ioCommunication.setSocketPath(this.socketPath);
+        ioCommunication.addMessageHandler(pendingRequests);
+        eventWaiters = new EventWaiters(ioCommunication);
+        initialize();
+    }
 
-            @Override
-            public Runnable doHandle(JSONObject message) {
-                final String eventName = message.getString("event");
+    /**
+     * Create a unique path for a MPV IPC socket, in the temporary directory.
+     * Each call return a different path, so several instances (in the same JVM or not) don't collide.
+     *
+     * @return The socket path
+     */
+    public static String createSocketPath() {
+        return Paths.get(System.getProperty("java.io.tmpdir"), "mpv-" + UUID.randomUUID() + ".sock").toString();
+    }
 
-                if (!eventName.equals(waitedEvent)) {
-                    return null;
-                }
+    /**
+     * Get the path of the MPV IPC socket
+     *
+     * @return The socket path
+     */
+    public String getSocketPath() {
+        return socketPath;
+    }
 
-                return new Runnable() {
-                    @Override
-                    public void run() {
-                        logger.debug(" - The event was waited");
-                        synchronized (waitedEvent) {
-                            waitedEvent.notify();
-                        }
-                    }
-                };
-            }
-        });
-        ioCommunication.addMessageHandler(waitFor);
-        initialize();
+    /**
+     * Indicate if the service is ready to use (MPV started and communication opened)
+     *
+     * @return {@code true} if the initialization succeed
+     */
+    public boolean isInitialized() {
+        return isInitialized;
     }
 
     @Override
     public String sendCommand(String command, List<? extends Serializable> arguments) throws IOException {
+        MpvResponse response = execute(new Command(command, arguments));
+        return response == null ? null : response.getRaw();
+    }
+
+    @Override
+    public CompletableFuture<String> sendCommandAsync(String command, List<? extends Serializable> arguments) {
+        return toRaw(executeAsync(new Command(command, arguments)));
+    }
+
+    @Override
+    public List<String> sendCommands(List<Command> commands) throws IOException {
+        List<MpvResponse> responses = execute(commands);
+        List<String> results = new ArrayList<>(responses.size());
+        for (MpvResponse response : responses) {
+            results.add(response == null ? null : response.getRaw());
+        }
+        return results;
+    }
+
+    @Override
+    public List<CompletableFuture<String>> sendCommandsAsync(List<Command> commands) {
+        List<CompletableFuture<MpvResponse>> responses = executeAsync(commands);
+        List<CompletableFuture<String>> results = new ArrayList<>(responses.size());
+        for (CompletableFuture<MpvResponse> response : responses) {
+            results.add(toRaw(response));
+        }
+        return results;
+    }
+
+    @Override
+    public MpvResponse execute(Command command) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COMMAND_TIMEOUT);
+        return await(executeAsync(command), deadline, command);
+    }
+
+    @Override
+    public CompletableFuture<MpvResponse> executeAsync(Command command) {
         int requestId;
-        waitFor.addRequest(requestId = ioCommunication.write(command, arguments));
-
-        synchronized (waitFor) {
-            int tries = 0;
-            while (!waitFor.hasResult(requestId)) {
-                try {
-                    waitFor.wait(500);
-                    tries++;
-
-                    if (tries > 10) {// We wait for more than 5sec
-                        logger.warn("Timeout for response of " + command + " / " + arguments.toString());
-                        waitFor.notify();
-                        break;
-                    }
-                } catch (InterruptedException e) {
-                    logger.warn("Response waiting interrupted for " + command + " / " + arguments.toString(), e);
-                    waitFor.notify();
-                    break;
-                }
+        CompletableFuture<MpvResponse> response;
+        // Wait for the response before sending, a fast response can arrive before the write end
+        do {
+            requestId = ioCommunication.nextRequestId();
+            response = pendingRequests.addRequest(requestId);
+        } while (response == null);
+        measure(command, response);
+        try {
+            ioCommunication.write(requestId, command.getName(), command.getArguments());
+        } catch (IOException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
+    @Override
+    public List<MpvResponse> execute(List<Command> commands) throws IOException {
+        List<CompletableFuture<MpvResponse>> responses = executeAsync(commands);
+        List<MpvResponse> results = new ArrayList<>(responses.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COMMAND_TIMEOUT);
+        for (int index = 0; index < responses.size(); index++) {
+            results.add(await(responses.get(index), deadline, commands.get(index)));
+        }
+        return results;
+    }
+
+    @Override
+    public List<CompletableFuture<MpvResponse>> executeAsync(List<Command> commands) {
+        Map<Integer, Command> requests = new LinkedHashMap<>();
+        List<CompletableFuture<MpvResponse>> responses = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            int requestId;
+            CompletableFuture<MpvResponse> response;
+            do {
+                requestId = ioCommunication.nextRequestId();
+                response = pendingRequests.addRequest(requestId);
+            } while (response == null);
+            requests.put(requestId, command);
+            responses.add(response);
+            measure(command, response);
+        }
+        try {
+            ioCommunication.write(requests);
+        } catch (IOException e) {
+            for (CompletableFuture<MpvResponse> response : responses) {
+                response.completeExceptionally(e);
             }
         }
-        return waitFor.getResult(requestId);
+        return responses;
     }
 
+    /**
+     * Wait for a command response
+     *
+     * @param response The future response
+     * @param deadline The time (from {@link System#nanoTime()}) after which the response is no more waited
+     * @param command  The command (for logging)
+     * @return The response, {@code null} if it's not received in time
+     * @throws IOException if an I/O error occurs
+     */
+    private MpvResponse await(CompletableFuture<MpvResponse> response, long deadline, Command command) throws IOException {
+        try {
+            return response.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            metrics.increment(MetricNames.COMMANDS_TIMEOUT);
+            logger.warn("Timeout for response of " + command);
+        } catch (InterruptedException e) {
+            logger.warn("Response waiting interrupted for " + command, e);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        // No more waited
+        response.cancel(false);
+        return null;
+    }
+
+    /**
+     * Count a sent command, and measure its round-trip time
+     *
+     * @param command  The command
+     * @param response The future response of the command
+     */
+    private void measure(Command command, CompletableFuture<MpvResponse> response) {
+        final MetricsRegistryInterface registry = metrics;
+        registry.increment(MetricNames.COMMANDS_SENT);
+        if (!registry.isEnabled()) {
+            return;
+        }
+        final String timer = MetricNames.COMMAND_LATENCY + command.getName();
+        final long start = System.nanoTime();
+        response.whenComplete((result, error) -> {
+            if (result != null) {
+                registry.record(timer, System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * Convert a future response to its raw (JSON) format.
+     * Cancelling the returned future also cancel the response.
+     *
+     * @param response The future response
+     * @return The future raw response
+     */
+    private static CompletableFuture<String> toRaw(final CompletableFuture<MpvResponse> response) {
+        final CompletableFuture<String> raw = response.thenApply(MpvResponse::getRaw);
+        raw.whenComplete((result, error) -> {
+            if (raw.isCancelled()) {
+                response.cancel(false);
+            }
+        });
+        return raw;
+    }
+
+    /**
+     * Get the number of command sent, and still waiting for their response
+     *
+     * @return The number of request in flight
+     */
+    public int getInFlightRequestCount() {
+        return pendingRequests.size();
+    }
 
     @Override
     public void sendNonBlockingCommand(String command, List<? extends Serializable> arguments) throws IOException {
+        metrics.increment(MetricNames.COMMANDS_SENT);
         ioCommunication.write(command, arguments);
     }
 
@@ -150,18 +376,66 @@ public class Service implements MpvService {
 
     @Override
     public void waitForEvent(String eventName, int timeout) {
-        waitedEvent = eventName;
-        synchronized (waitedEvent) {
-            try {
-                waitedEvent.wait(timeout);
-            } catch (InterruptedException e) {
-                logger.error("Error while waiting for an event", e);
-            } finally {
-                waitedEvent = null;
-            }
+        CompletableFuture<JSONObject> event = eventWaiters.await(eventName, null);
+        try {
+            event.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.debug("The event " + eventName + " didn't occur in " + timeout + "ms");
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error while waiting for an event", e);
+        } finally {
+            event.cancel(false);
         }
     }
 
+    @Override
+    public CompletableFuture<JSONObject> awaitEvent(String eventName, long timeout) {
+        return awaitEvent(eventName, null, timeout);
+    }
+
+    @Override
+    public CompletableFuture<JSONObject> awaitEvent(final String eventName, Predicate<JSONObject> predicate, final long timeout) {
+        final CompletableFuture<JSONObject> event = eventWaiters.await(eventName, predicate);
+        if (timeout > 0 && !event.isDone()) {
+            final ScheduledFuture<?> expiration = getScheduler().schedule(
+                    () -> event.completeExceptionally(new TimeoutException("The event " + eventName + " didn't occur in " + timeout + "ms")),
+                    timeout,
+                    TimeUnit.MILLISECONDS
+            );
+            event.whenComplete((message, error) -> expiration.cancel(false));
+        }
+        return event;
+    }
+
+    @Override
+    public PublisherInterface<JSONObject> eventPublisher(String eventName) {
+        return new EventPublisher(this, eventName, AbstractMpvPublisher.DEFAULT_BUFFER_SIZE, getPublisherExecutor());
+    }
+
+    @Override
+    public PublisherInterface<Object> propertyPublisher(String propertyName) {
+        return new PropertyPublisher(this, propertyName, AbstractMpvPublisher.DEFAULT_BUFFER_SIZE, getPublisherExecutor());
+    }
+
+    /**
+     * Get the executor that send the items of the publishers to their subscribers
+     *
+     * @return The handler executor, or the shared pool if none is set
+     */
+    private Executor getPublisherExecutor() {
+        Executor executor = handlerExecutor;
+        return executor == null ? HandlerExecutor.shared() : executor;
+    }
+
+    /**
+     * Get the number of threads (or tasks) waiting for an event
+     *
+     * @return The number of waiters
+     */
+    public int getEventWaiterCount() {
+        return eventWaiters.size();
+    }
+
     /**
      * Start all needed process
      */
@@ -169,15 +443,55 @@ public class Service implements MpvService {
         ProcessBuilder pb = new ProcessBuilder(Arrays.asList(mpvPath, "--idle=yes", "--force-window=no", "--input-ipc-server=" + socketPath));
         try {
             mpvProcess = pb.start();
-            Thread.sleep(500);
-            ioCommunication.open();
+            awaitReady(STARTUP_TIMEOUT);
             isInitialized = true;
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException e) {
             logger.error("Unable to start Mpv", e);
             isInitialized = false;
         }
     }
 
+    /**
+     * Wait for MPV to be ready: connect to its socket (as soon as it accept connection),
+     * and check that it answers a command.
+     *
+     * @param timeout The maximum time (in milliseconds) to wait
+     * @throws IOException If MPV is not ready before the timeout, or if it exited
+     */
+    protected void awaitReady(long timeout) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        Command handshake = new Command("client_name");
+        long delay = 2;
+        IOException failure = null;
+        while (true) {
+            ioCommunication.open(Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            long attemptDeadline = Math.min(deadline, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(HANDSHAKE_TIMEOUT));
+            try {
+                MpvResponse response = await(executeAsync(handshake), attemptDeadline, handshake);
+                if (response != null && response.isSuccess()) {
+                    return;
+                }
+            } catch (IOException e) {
+                // The connection was accepted too early (or lost), it's reopened on the next attempt
+                failure = e;
+            }
+            if (mpvProcess != null && !mpvProcess.isAlive()) {
+                throw new IOException("MPV exited during its start (exit code " + mpvProcess.exitValue() + ")", failure);
+            }
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                throw new IOException("MPV not ready after " + timeout + "ms", failure);
+            }
+            try {
+                Thread.sleep(Math.min(delay, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for MPV");
+            }
+            delay = Math.min(delay * 2, 100);
+        }
+    }
+
     @Override
     public String setProperty(String name, String value) throws IOException {
         return sendCommand("set_property", Arrays.asList(name, value));
@@ -188,6 +502,16 @@ public class Service implements MpvService {
         return sendCommand("set_property", Arrays.asList(name, value));
     }
 
+    @Override
+    public CompletableFuture<String> setPropertyAsync(String name, String value) {
+        return sendCommandAsync("set_property", Arrays.asList(name, value));
+    }
+
+    @Override
+    public CompletableFuture<String> setPropertyAsync(String name, Boolean value) {
+        return sendCommandAsync("set_property", Arrays.asList(name, value));
+    }
+
     @Override
     public String getProperty(String name) throws IOException {
         return sendCommand("get_property", Collections.singletonList(name));
@@ -195,63 +519,309 @@ public class Service implements MpvService {
 
     @Override
     public <T> T getProperty(String name, Class<T> type) throws IOException {
-        String result = getProperty(name);
-        return JSONObject.parseObject(result).getObject("data", type);
+        MpvResponse response = execute(new Command("get_property", name));
+        return response == null ? null : response.getData(type);
+    }
+
+    @Override
+    public CompletableFuture<String> getPropertyAsync(String name) {
+        return sendCommandAsync("get_property", Collections.singletonList(name));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getPropertyAsync(String name, final Class<T> type) {
+        return executeAsync(new Command("get_property", name)).thenApply(response -> response.getData(type));
+    }
+
+    @Override
+    public double getDoubleProperty(String name, double defaultValue) throws IOException {
+        MpvResponse response = execute(new Command("get_property", name));
+        return response == null ? defaultValue : response.getDataAsDouble(defaultValue);
+    }
+
+    @Override
+    public long getLongProperty(String name, long defaultValue) throws IOException {
+        MpvResponse response = execute(new Command("get_property", name));
+        return response == null ? defaultValue : response.getDataAsLong(defaultValue);
+    }
+
+    @Override
+    public boolean getBooleanProperty(String name, boolean defaultValue) throws IOException {
+        MpvResponse response = execute(new Command("get_property", name));
+        return response == null ? defaultValue : response.getDataAsBoolean(defaultValue);
+    }
+
+    @Override
+    public CompletableFuture<Double> getDoublePropertyAsync(String name, final double defaultValue) {
+        return executeAsync(new Command("get_property", name)).thenApply(response -> response.getDataAsDouble(defaultValue));
+    }
+
+    @Override
+    public CompletableFuture<Long> getLongPropertyAsync(String name, final long defaultValue) {
+        return executeAsync(new Command("get_property", name)).thenApply(response -> response.getDataAsLong(defaultValue));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> getBooleanPropertyAsync(String name, final boolean defaultValue) {
+        return executeAsync(new Command("get_property", name)).thenApply(response -> response.getDataAsBoolean(defaultValue));
+    }
+
+    /**
+     * Add an interceptor of the traffic with MPV (sent commands and received lines)
+     *
+     * @param interceptor The interceptor
+     */
+    public void addInterceptor(InterceptorInterface interceptor) {
+        ioCommunication.addInterceptor(interceptor);
+    }
+
+    /**
+     * Remove an interceptor of the traffic with MPV
+     *
+     * @param interceptor The interceptor
+     */
+    public void removeInterceptor(InterceptorInterface interceptor) {
+        ioCommunication.removeInterceptor(interceptor);
+    }
+
+    /**
+     * Get the registry of the measures of the service
+     *
+     * @return The registry
+     */
+    public MetricsRegistryInterface getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the registry of the measures of the service (and of its communication).
+     * See {@link MetricNames} for the measured values.
+     *
+     * @param metrics The registry (like a {@link io.github.macfja.mpv.metrics.SimpleMetricsRegistry})
+     */
+    public void setMetrics(MetricsRegistryInterface metrics) {
+        this.metrics = metrics;
+        ioCommunication.setMetrics(metrics);
+        metrics.gauge(MetricNames.REQUESTS_IN_FLIGHT, () -> pendingRequests.size());
+        metrics.gauge(MetricNames.HANDLERS_QUEUED, () -> {
+            Executor executor = handlerExecutor;
+            return executor instanceof HandlerExecutor ? ((HandlerExecutor) executor).getQueuedCount() : 0;
+        });
+        metrics.gauge(MetricNames.HANDLERS_REJECTED, () -> {
+            Executor executor = handlerExecutor;
+            return executor instanceof HandlerExecutor ? ((HandlerExecutor) executor).getRejectedCount() : 0;
+        });
+    }
+
+    /**
+     * Get the executor used to run the message handlers workers
+     *
+     * @return The executor, {@code null} if every handler use its own default
+     */
+    public Executor getHandlerExecutor() {
+        return handlerExecutor;
+    }
+
+    /**
+     * Set the executor used to run the message handlers workers.
+     * It's applied to the registered handlers (and the future ones) that don't have a specific executor.
+     *
+     * @param executor The executor (see {@link HandlerExecutor}), {@code null} to use each handler default
+     */
+    public void setHandlerExecutor(Executor executor) {
+        handlerExecutor = executor;
+        applyHandlerExecutor();
+    }
+
+    /**
+     * Indicate if each handler receive its messages one at a time, in the reception order
+     *
+     * @return {@code true} if the dispatch is ordered
+     */
+    public boolean isOrderedDispatch() {
+        return orderedDispatch;
+    }
+
+    /**
+     * Set if each handler receive its messages one at a time, in the reception order.
+     * Each handler get its own {@link SerialExecutor} over the handler executor
+     * (or the {@link HandlerExecutor#shared() shared pool} if none is set), so different handlers still run in parallel.
+     * It's applied to the registered handlers (and the future ones) that don't have a specific executor.
+     *
+     * @param orderedDispatch {@code true} to enable the ordered dispatch
+     */
+    public void setOrderedDispatch(boolean orderedDispatch) {
+        this.orderedDispatch = orderedDispatch;
+        applyHandlerExecutor();
+    }
+
+    /**
+     * Get the scheduler shared by the rate limited observers of the service (created on first call)
+     *
+     * @return The scheduler
+     */
+    public ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            synchronized (this) {
+                if (scheduler == null) {
+                    scheduler = RateLimitedPropertyObserver.createScheduler();
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Stop the scheduler of the rate limited observers (if it was created)
+     */
+    protected void shutdownScheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Update the executor of the registered handlers that use the service executor
+     */
+    private void applyHandlerExecutor() {
+        for (MessageHandlerInterface handler : ioCommunication.getMessageHandlers()) {
+            useServiceExecutor(handler);
+        }
+    }
+
+    /**
+     * Give a handler the service executor, if it doesn't have a specific one
+     *
+     * @param handler The handler
+     */
+    private void useServiceExecutor(MessageHandlerInterface handler) {
+        if (!(handler instanceof AbstractMessageHandler)) {
+            return;
+        }
+        AbstractMessageHandler messageHandler = (AbstractMessageHandler) handler;
+        Executor current = messageHandler.getExecutor();
+        if (current != null && current != assignedExecutors.get(messageHandler)) {
+            return;
+        }
+        Executor executor = handlerExecutor;
+        if (orderedDispatch) {
+            executor = new SerialExecutor(executor == null ? HandlerExecutor.shared() : executor);
+        }
+        messageHandler.setExecutor(executor);
+        if (executor == null) {
+            assignedExecutors.remove(messageHandler);
+        } else {
+            assignedExecutors.put(messageHandler, executor);
+        }
+    }
+
+    /**
+     * Add a message handler to the communication, with the service executor if it doesn't have one
+     *
+     * @param handler The handler to add
+     */
+    private void addMessageHandler(MessageHandlerInterface handler) {
+        useServiceExecutor(handler);
+        ioCommunication.addMessageHandler(handler);
+    }
+
+    /**
+     * Remove a message handler from the communication
+     *
+     * @param handler The handler to remove
+     */
+    private void removeMessageHandler(MessageHandlerInterface handler) {
+        ioCommunication.removeMessageHandler(handler);
+        assignedExecutors.remove(handler);
     }
 
     @Override
     public void registerEvent(NamedEventHandler observer) {
-        ioCommunication.addMessageHandler(observer);
+        addMessageHandler(observer);
+    }
+
+    @Override
+    public void unregisterEvent(NamedEventHandler observer) {
+        removeMessageHandler(observer);
     }
 
     @Override
     public void registerPropertyChange(PropertyObserver observer) throws IOException {
-        if (!hasPropertyObserver(observer.getPropertyName(), observer.getId())) {
-            sendCommand("observe_property", Arrays.asList(observer.getId(), observer.getPropertyName()));
+        PropertyObservations.Registration registration = observations.add(observer);
+        if (registration == PropertyObservations.Registration.DUPLICATE) {
+            return;
+        }
+        if (observer instanceof RateLimitedPropertyObserver
+                && ((RateLimitedPropertyObserver) observer).getScheduler() == null) {
+            ((RateLimitedPropertyObserver) observer).setScheduler(getScheduler());
+        }
+        // Register the handler first, to not miss the initial value sent by MPV
+        addMessageHandler(observer);
+        if (registration == PropertyObservations.Registration.OBSERVE) {
+            try {
+                sendCommand("observe_property", Arrays.asList(observer.getId(), observer.getPropertyName()));
+            } catch (IOException e) {
+                observations.cancel(observer);
+                removeMessageHandler(observer);
+                throw e;
+            }
+            return;
+        }
+        sendInitialValue(observer);
+    }
+
+    /**
+     * Give the current value of its property to an observer that join an existing observation
+     * (MPV only send the initial value when the property is observed, so only to the first observer).
+     * The other observers of the property don't receive it.
+     *
+     * @param observer The observer
+     */
+    private void sendInitialValue(PropertyObserver observer) {
+        MpvResponse response;
+        try {
+            response = execute(new Command("get_property", observer.getPropertyName()));
+        } catch (IOException e) {
+            logger.warn("Unable to read the initial value of " + observer.getPropertyName(), e);
+            return;
+        }
+        if (response == null || !response.isSuccess()) {
+            return;
+        }
+        JSONObject event = PropertyObserver.buildPropertyChangeEvent(
+                observer.getPropertyName(), response.getData(), observer.getId()
+        );
+        if (observer.canHandle(event)) {
+            observer.handle(event);
         }
-        ioCommunication.addMessageHandler(observer);
     }
 
     @Override
     public void unregisterPropertyChange(PropertyObserver observer) throws IOException {
-        ioCommunication.removeMessageHandler(observer);
-        if (!hasPropertyObserver(observer.getPropertyName(), observer.getId())) {
+        if (!observations.contains(observer)) {
+            return;
+        }
+        removeMessageHandler(observer);
+        if (observations.remove(observer)) {
             sendNonBlockingCommand("unobserve_property", Collections.singletonList(observer.getId()));
         }
     }
 
     @Override
     public void unregisterPropertyChange(String propertyName) throws IOException {
-        List<PropertyObserver> toRemove = new ArrayList<>();
-        for (MessageHandlerInterface messageHandler : ioCommunication.getMessageHandlers()) {
-            if (messageHandler instanceof PropertyObserver
-                    && ((PropertyObserver) messageHandler).getPropertyName().equals(propertyName)) {
-                toRemove.add((PropertyObserver) messageHandler);
-            }
-        }
-        for (PropertyObserver item : toRemove) {
-            ioCommunication.removeMessageHandler(item);
+        for (PropertyObserver observer : observations.getObservers(propertyName)) {
+            unregisterPropertyChange(observer);
         }
     }
 
     /**
-     * Check if a property have at least one observer
+     * Get the number of properties observed in MPV (one per property and group, whatever the number of observers)
      *
-     * @param propertyName The name of the property to check
-     * @param groupId      The id of the group to be associated with
-     * @return {@code true} if an observer exist
+     * @return The number of observations
      */
-    private boolean hasPropertyObserver(String propertyName, int groupId) {
-        for (MessageHandlerInterface handler : ioCommunication.getMessageHandlers()) {
-            if (
-                    handler instanceof PropertyObserver
-                            && ((PropertyObserver) handler).getPropertyName().equals(propertyName)
-                            && ((PropertyObserver) handler).getId().equals(groupId)
-                    ) {
-                return true;
-            }
-        }
-        return false;
+    public int getObservationCount() {
+        return observations.getObservationCount();
     }
 
     @Override
@@ -287,6 +857,7 @@ public class Service implements MpvService {
     @Override
     public void close() throws IOException {
         ioCommunication.close();
+        shutdownScheduler();
 
         try {
             if (mpvProcess != null) {
@@ -300,69 +871,60 @@ public class Service implements MpvService {
     }
 
     /**
-     * Internal observer to get the response of a command
+     * Internal observer to get the response of a command.
+     * It receives the raw responses, so they are only parsed if the caller reads their message.
      */
-    private class SynchronousSend extends AbstractMessageHandler {
+    private class PendingRequests extends ResponseHandler implements RawResponseHandlerInterface {
         /**
-         * List of all request/response waited and received (but not yet retrieved)
+         * List of all request waiting for their response (by request id)
          */
-        private Map<Integer, String> data = new HashMap<>();
+        private final Map<Integer, CompletableFuture<MpvResponse>> data = new ConcurrentHashMap<>();
 
         /**
          * Add a new waited response
          *
          * @param requestId The associated request id
+         * @return <p>The future response, it's forgotten as soon as it's completed (or cancelled).
+         *         {@code null} if a request with the same id is still waiting</p>
          */
-        void addRequest(int requestId) {
-            data.put(requestId, null);
-        }
-
-        /**
-         * Check if a request id is waited or not
-         *
-         * @param requestId The request id to check
-         * @return {@code true} if a response with this request id is waited
-         */
-        boolean hasRequest(int requestId) {
-            return data.containsKey(requestId);
-        }
-
-        /**
-         * Get the command response
-         *
-         * @param requestId The id of the request to look for
-         * @return The response. Return {@code null} if no response or the request id is not found
-         */
-        String getResult(int requestId) {
-            if (!data.containsKey(requestId)) {
+        CompletableFuture<MpvResponse> addRequest(final int requestId) {
+            final CompletableFuture<MpvResponse> response = new CompletableFuture<>();
+            if (data.putIfAbsent(requestId, response) != null) {
                 return null;
             }
-            return data.remove(requestId);
+            response.whenComplete((result, error) -> data.remove(requestId, response));
+            return response;
         }
 
         /**
-         * Indicate if we receive the response
+         * Get the number of request waiting for their response
          *
-         * @param requestId The id of the request to look for
-         * @return {@code true} if we have the result
+         * @return The number of request in flight
          */
-        boolean hasResult(int requestId) {
-            return data.containsKey(requestId) && data.get(requestId) != null;
+        int size() {
+            return data.size();
         }
 
         @Override
-        public boolean canHandle(JSONObject message) {
-            return message.containsKey("request_id") && hasRequest(message.getIntValue("request_id"));
+        public boolean canHandle(Integer requestId) {
+            return requestId != null && data.containsKey(requestId);
         }
 
         @Override
-        synchronized public Runnable doHandle(final JSONObject message) {
-            int requestId = message.getIntValue("request_id");
-            if (hasRequest(requestId)) {
-                data.put(requestId, message.toJSONString());
-                notify();
+        public Runnable doHandle(final JSONObject message) {
+            CompletableFuture<MpvResponse> response = data.remove(message.getIntValue("request_id"));
+            if (response != null) {
+                response.complete(new MpvResponse(message));
             }
             return null;
         }
+
+        @Override
+        public void handleResponse(MpvResponse response) {
+            CompletableFuture<MpvResponse> pending = data.remove(response.getRequestId());
+            if (pending != null) {
+                pending.complete(response);
+            }
+        }
     }
 }
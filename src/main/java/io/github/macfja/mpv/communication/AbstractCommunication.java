@@ -0,0 +1,377 @@
+package io.github.macfja.mpv.communication;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.handling.MessageHandlerInterface;
+import io.github.macfja.mpv.metrics.MetricsRegistryInterface;
+import io.github.macfja.mpv.metrics.NoopMetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An abstract/base implementation of the communication interface.
+ * It manage the message handlers, the JSON encoding of the commands and the listening part,
+ * the implementations only have to provide the streams connected to the MPV IPC.
+ *
+ * @author MacFJA
+ */
+public abstract class AbstractCommunication implements CommunicationInterface {
+    /**
+     * The charset used by MPV IPC
+     */
+    protected static final Charset CHARSET = Charset.forName("UTF-8");
+    /**
+     * The first delay (in milliseconds) between two connection attempts (doubled after each failure)
+     */
+    private static final long MIN_RETRY_DELAY = 2;
+    /**
+     * The maximum delay (in milliseconds) between two connection attempts
+     */
+    private static final long MAX_RETRY_DELAY = 100;
+    /**
+     * The writer ({@code null} when the communication is not opened)
+     */
+    private volatile BufferedWriter ioWriter;
+    /**
+     * Indicate if we should send a quite command to MPV when the {@code close} method is call.
+     *
+     * @see AbstractCommunication#close()
+     */
+    private boolean exitOnClose = true;
+    /**
+     * The path to the socket that MPV listen
+     */
+    private String socketPath;
+    /**
+     * The class logger
+     */
+    protected Logger logger = LoggerFactory.getLogger(getClass());
+    /**
+     * The listening part
+     */
+    private volatile MessagesListener messagesListener;
+    /**
+     * The message handlers, shared by the successive listeners
+     */
+    private final HandlerRegistry handlers = new HandlerRegistry();
+    /**
+     * The registry of the measures
+     */
+    private volatile MetricsRegistryInterface metrics = NoopMetricsRegistry.INSTANCE;
+    /**
+     * The interceptors of the sent commands and received lines, shared by the successive listeners
+     */
+    private final InterceptorChain interceptors = new InterceptorChain();
+    /**
+     * The last allocated request id
+     */
+    private final AtomicInteger lastRequestId = new AtomicInteger();
+
+    /**
+     * Constructor and initializer.
+     */
+    public AbstractCommunication() {
+        messagesListener = new MessagesListener(logger, handlers);
+        messagesListener.setInterceptors(interceptors);
+    }
+
+    /**
+     * Create the best communication available in the current JVM.
+     * A direct connection to the Unix socket is used if the JVM support it,
+     * otherwise the communication fallback to the "{@code nc}" command.
+     *
+     * @return A new (not opened) communication
+     */
+    public static CommunicationInterface createDefault() {
+        if (UnixSocketCommunication.isSupported()) {
+            return new UnixSocketCommunication();
+        }
+        return new Communication();
+    }
+
+    @Override
+    public void setExitOnClose(boolean exitOnClose) {
+        this.exitOnClose = exitOnClose;
+    }
+
+    @Override
+    public void setMetrics(MetricsRegistryInterface metrics) {
+        this.metrics = metrics;
+        messagesListener.setMetrics(metrics);
+    }
+
+    @Override
+    public void addInterceptor(InterceptorInterface interceptor) {
+        interceptors.add(interceptor);
+    }
+
+    @Override
+    public void removeInterceptor(InterceptorInterface interceptor) {
+        interceptors.remove(interceptor);
+    }
+
+    @Override
+    public void setSocketPath(String socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    /**
+     * Get the path to the socket that MPV listen
+     *
+     * @return The path
+     */
+    protected String getSocketPath() {
+        return socketPath;
+    }
+
+    @Override
+    public void addMessageHandler(MessageHandlerInterface messageHandler) {
+        handlers.addMessageHandler(messageHandler);
+    }
+
+    @Override
+    public void removeMessageHandler(MessageHandlerInterface messageHandler) {
+        handlers.removeMessageHandler(messageHandler);
+    }
+
+    @Override
+    public List<MessageHandlerInterface> getMessageHandlers() {
+        return handlers.getMessageHandlers();
+    }
+
+    @Override
+    public void clearMessageHandlers() {
+        handlers.clearMessageHandlers();
+    }
+
+    /**
+     * Check if every component is ready ti be used.
+     * Start them if necessary (only once, when several threads write the first commands at the same time).
+     *
+     * @throws IOException If an error occurs when opening the communication
+     */
+    private void ensureIoReady() throws IOException {
+        if (isIoReady()) {
+            return;
+        }
+        synchronized (this) {
+            if (!isIoReady()) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Indicate if the writer, the listener and the connection are usable
+     *
+     * @return {@code true} if the commands can be written
+     */
+    private boolean isIoReady() {
+        return ioWriter != null && messagesListener.isRunning() && isConnected();
+    }
+
+    @Override
+    public int write(String command, List<? extends Serializable> arguments) throws IOException {
+        int requestId = nextRequestId();
+        write(requestId, command, arguments);
+
+        return requestId;
+    }
+
+    @Override
+    public int nextRequestId() {
+        int requestId;
+        do {
+            // Positive and never 0 (the id of MPV responses to request without id)
+            requestId = lastRequestId.incrementAndGet() & Integer.MAX_VALUE;
+        } while (requestId == 0);
+        return requestId;
+    }
+
+    @Override
+    public void write(int requestId, String command, List<? extends Serializable> arguments) throws IOException {
+        write(Collections.singletonMap(requestId, new Command(command, arguments)));
+    }
+
+    @Override
+    public void write(Map<Integer, Command> commands) throws IOException {
+        ensureIoReady();
+
+        List<String> lines = new ArrayList<>(commands.size());
+        boolean intercepted = !interceptors.isEmpty();
+        for (Map.Entry<Integer, Command> command : commands.entrySet()) {
+            String line = encode(command.getKey(), command.getValue());
+            if (intercepted) {
+                interceptors.fireSend(command.getKey(), command.getValue(), line);
+            }
+            lines.add(line);
+        }
+
+        BufferedWriter writer = ioWriter;
+        if (writer == null) {
+            throw new IOException("The communication with MPV is closed");
+        }
+        synchronized (writer) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * Build the JSON line of a command
+     *
+     * @param requestId The request id
+     * @param command   The command
+     * @return The JSON line (without the line feed)
+     */
+    private String encode(int requestId, Command command) {
+        ArrayList<Object> parameters = new ArrayList<>();
+        parameters.add(command.getName());
+        parameters.addAll(command.getArguments());
+        JSONObject json = new JSONObject();
+        json.put("command", parameters);
+        json.put("request_id", requestId);
+        String line = json.toJSONString();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Send: " + line);
+        }
+
+        return line;
+    }
+
+    @Override
+    public void simulateMessage(JSONObject message) {
+        messagesListener.handleLine(message);
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        // A single connection attempt
+        open(0);
+    }
+
+    @Override
+    public synchronized void open(long timeout) throws IOException {
+        if (!isConnected()) {
+            logger.info("Start MPV communication");
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            long delay = MIN_RETRY_DELAY;
+            while (true) {
+                try {
+                    connect();
+                    break;
+                } catch (IOException e) {
+                    // The socket may not exist yet, or not accept connection yet
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        logger.error("Unable to start communication", e);
+                        throw e;
+                    }
+                    logger.debug("MPV socket not ready, retrying in " + Math.min(delay, remaining) + "ms");
+                    try {
+                        Thread.sleep(Math.min(delay, remaining));
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while connecting to MPV");
+                    }
+                    delay = Math.min(delay * 2, MAX_RETRY_DELAY);
+                }
+            }
+            // The previous writer (if any) was bound to the previous connection
+            ioWriter = null;
+        }
+        startStreams();
+    }
+
+    /**
+     * Start the writer and the listener on the connection (if not already started)
+     */
+    private void startStreams() {
+        if (ioWriter == null) {
+            logger.info("Start MPV writer");
+            ioWriter = new BufferedWriter(new OutputStreamWriter(getOutputStream(), CHARSET));
+        }
+
+        if (!messagesListener.isRunning()) {
+            if (messagesListener.getState() != Thread.State.NEW) {
+                // A thread can't be started twice, continue with a new listener
+                messagesListener = new MessagesListener(logger, handlers);
+                messagesListener.setMetrics(metrics);
+                messagesListener.setInterceptors(interceptors);
+            }
+            logger.info("Start MPV reader");
+            messagesListener.start(getInputStream());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            BufferedWriter writer = ioWriter;
+            if (isConnected() && writer != null) {
+                if (exitOnClose) {
+                    write("exit", null);
+                }
+                writer.close();
+            }
+        } finally {
+            try {
+                disconnect();
+            } finally {
+                ioWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Establish the connection with the MPV IPC.
+     *
+     * @throws IOException If the connection can't be established
+     */
+    protected abstract void connect() throws IOException;
+
+    /**
+     * Release the connection with the MPV IPC.
+     *
+     * @throws IOException If an error occurs when closing the connection
+     */
+    protected abstract void disconnect() throws IOException;
+
+    /**
+     * Indicate if the connection with the MPV IPC is established
+     *
+     * @return {@code true} if the connection is usable
+     */
+    protected abstract boolean isConnected();
+
+    /**
+     * Get the stream where MPV messages are read
+     *
+     * @return The stream of the connection
+     */
+    protected abstract InputStream getInputStream();
+
+    /**
+     * Get the stream where commands are written
+     *
+     * @return The stream of the connection
+     */
+    protected abstract OutputStream getOutputStream();
+}
@@ -0,0 +1,66 @@
+package io.github.macfja.mpv.communication;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A MPV command (name and arguments), to send in batch.
+ *
+ * @author MacFJA
+ */
+public class Command {
+    /**
+     * The command name
+     */
+    private final String name;
+    /**
+     * The command arguments
+     */
+    private final List<? extends Serializable> arguments;
+
+    /**
+     * Constructor.
+     *
+     * @param name      The command name
+     * @param arguments The command arguments
+     */
+    public Command(String name, List<? extends Serializable> arguments) {
+        this.name = name;
+        this.arguments = arguments == null ? Collections.<Serializable>emptyList() : arguments;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name      The command name
+     * @param arguments The command arguments
+     */
+    public Command(String name, Serializable... arguments) {
+        this(name, Arrays.asList(arguments));
+    }
+
+    /**
+     * Get the command name
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the command arguments
+     *
+     * @return The list of arguments
+     */
+    public List<? extends Serializable> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public String toString() {
+        return name + " / " + arguments;
+    }
+}
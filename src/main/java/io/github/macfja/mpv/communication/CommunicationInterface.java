@@ -2,11 +2,13 @@ package io.github.macfja.mpv.communication;
 
 import com.alibaba.fastjson.JSONObject;
 import io.github.macfja.mpv.communication.handling.HandlerAwareInterface;
+import io.github.macfja.mpv.metrics.MetricsRegistryInterface;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The interface used by the MPV service implementation to communicate with MPV.
@@ -40,6 +42,38 @@ public interface CommunicationInterface extends HandlerAwareInterface, Closeable
      */
     int write(String command, List<? extends Serializable> arguments) throws IOException;
 
+    /**
+     * Send a command to MPV with a known request id.
+     * Useful to be ready to receive the response before the command is sent.
+     *
+     * @param requestId The request id (see {@link CommunicationInterface#nextRequestId()})
+     * @param command   The command name
+     * @param arguments The list of arguments of the command
+     * @throws IOException If an error when send the command
+     */
+    void write(int requestId, String command, List<? extends Serializable> arguments) throws IOException;
+
+    /**
+     * Send several commands to MPV at once (written back-to-back, with only one flush).
+     * By default, the commands are written one after the other.
+     *
+     * @param commands The commands to send, by request id (the commands are sent in the map iteration order)
+     * @throws IOException If an error when send the commands
+     */
+    default void write(Map<Integer, Command> commands) throws IOException {
+        for (Map.Entry<Integer, Command> command : commands.entrySet()) {
+            write(command.getKey(), command.getValue().getName(), command.getValue().getArguments());
+        }
+    }
+
+    /**
+     * Get a new request id.
+     * Ids are allocated in sequence, so an id is only reused after the whole (positive) int range.
+     *
+     * @return The request id to use in the next command
+     */
+    int nextRequestId();
+
     /**
      * Simulated the receive of a message
      *
@@ -53,4 +87,43 @@ public interface CommunicationInterface extends HandlerAwareInterface, Closeable
      * @throws IOException If an error occurs when opening the communication
      */
     void open() throws IOException;
+
+    /**
+     * Open the communication with MPV, retrying the connection until MPV accept it.
+     * Used when MPV was just started, and its socket may not be ready yet.
+     * By default, the connection is opened once, without retrying.
+     *
+     * @param timeout The maximum time (in milliseconds) to wait for the connection
+     * @throws IOException If the connection can't be established before the timeout
+     */
+    default void open(long timeout) throws IOException {
+        open();
+    }
+
+    /**
+     * Set the registry of the measures of the communication (received lines, parse time, handlers dispatch time).
+     * By default, nothing is measured.
+     *
+     * @param metrics The registry
+     */
+    default void setMetrics(MetricsRegistryInterface metrics) {
+    }
+
+    /**
+     * Add an interceptor of the sent commands and received lines.
+     * When there is no interceptor, the traffic is not intercepted at all.
+     * By default, the interceptor is ignored.
+     *
+     * @param interceptor The interceptor
+     */
+    default void addInterceptor(InterceptorInterface interceptor) {
+    }
+
+    /**
+     * Remove an interceptor of the sent commands and received lines
+     *
+     * @param interceptor The interceptor
+     */
+    default void removeInterceptor(InterceptorInterface interceptor) {
+    }
 }
@@ -0,0 +1,239 @@
+package io.github.macfja.mpv.communication;
+
+import io.github.macfja.mpv.communication.handling.HandlerAwareInterface;
+import io.github.macfja.mpv.communication.handling.MessageHandlerInterface;
+import io.github.macfja.mpv.communication.handling.RoutableHandlerInterface;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe, copy-on-write, registry of message handlers.
+ * <p>
+ * The handlers are held in an immutable snapshot: a registration build a new snapshot and publish it atomically,
+ * so the dispatch can read the current snapshot without any lock, and a handler can (un)register handlers
+ * while a message is dispatched.
+ *
+ * @author MacFJA
+ */
+public class HandlerRegistry implements HandlerAwareInterface {
+    /**
+     * The current snapshot of the handlers
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    @Override
+    public void addMessageHandler(MessageHandlerInterface messageHandler) {
+        Snapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current, current.with(messageHandler)));
+    }
+
+    @Override
+    public void removeMessageHandler(MessageHandlerInterface messageHandler) {
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = snapshot.get();
+            updated = current.without(messageHandler);
+        } while (updated != current && !snapshot.compareAndSet(current, updated));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The returned list is an unmodifiable snapshot, it's not updated by later (un)registrations.
+     */
+    @Override
+    public List<MessageHandlerInterface> getMessageHandlers() {
+        return snapshot.get().handlers;
+    }
+
+    @Override
+    public void clearMessageHandlers() {
+        snapshot.set(Snapshot.EMPTY);
+    }
+
+    /**
+     * Get the current snapshot of the handlers
+     *
+     * @return The snapshot
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * An immutable state of the registry
+     */
+    public static final class Snapshot {
+        /**
+         * The snapshot without any handler
+         */
+        static final Snapshot EMPTY = new Snapshot(
+                Collections.<MessageHandlerInterface>emptyList(),
+                Collections.<String, List<MessageHandlerInterface>>emptyMap(),
+                Collections.<MessageHandlerInterface>emptyList()
+        );
+        /**
+         * All the handlers, in registration order
+         */
+        private final List<MessageHandlerInterface> handlers;
+        /**
+         * The handlers that declare a routing key, by routing key
+         */
+        private final Map<String, List<MessageHandlerInterface>> routedHandlers;
+        /**
+         * The handlers that must be tested against every message
+         */
+        private final List<MessageHandlerInterface> genericHandlers;
+
+        /**
+         * Constructor.
+         *
+         * @param handlers        All the handlers
+         * @param routedHandlers  The handlers by routing key
+         * @param genericHandlers The handlers without routing key
+         */
+        private Snapshot(
+                List<MessageHandlerInterface> handlers,
+                Map<String, List<MessageHandlerInterface>> routedHandlers,
+                List<MessageHandlerInterface> genericHandlers
+        ) {
+            this.handlers = handlers;
+            this.routedHandlers = routedHandlers;
+            this.genericHandlers = genericHandlers;
+        }
+
+        /**
+         * Get the handlers registered with a routing key
+         *
+         * @param routingKey The routing key
+         * @return The handlers ({@code null} if there is none)
+         */
+        public List<MessageHandlerInterface> getRoutedHandlers(String routingKey) {
+            return routedHandlers.get(routingKey);
+        }
+
+        /**
+         * Get the handlers that must be tested against every message
+         *
+         * @return The handlers
+         */
+        public List<MessageHandlerInterface> getGenericHandlers() {
+            return genericHandlers;
+        }
+
+        /**
+         * Indicate if at least one handler is registered with a routing key
+         *
+         * @param routingKey The routing key
+         * @return {@code true} if there is a handler
+         */
+        public boolean hasRoutedHandlers(String routingKey) {
+            return routedHandlers.containsKey(routingKey);
+        }
+
+        /**
+         * Create a new snapshot with an additional handler
+         *
+         * @param handler The handler to add
+         * @return The new snapshot
+         */
+        Snapshot with(MessageHandlerInterface handler) {
+            String key = getRoutingKey(handler);
+            Map<String, List<MessageHandlerInterface>> routed = routedHandlers;
+            List<MessageHandlerInterface> generic = genericHandlers;
+            if (key == null) {
+                generic = append(genericHandlers, handler);
+            } else {
+                routed = new HashMap<>(routedHandlers);
+                routed.put(key, append(routedHandlers.get(key), handler));
+                routed = Collections.unmodifiableMap(routed);
+            }
+            return new Snapshot(append(handlers, handler), routed, generic);
+        }
+
+        /**
+         * Create a new snapshot without a handler
+         *
+         * @param handler The handler to remove
+         * @return The new snapshot, or this snapshot if the handler isn't registered
+         */
+        Snapshot without(MessageHandlerInterface handler) {
+            if (!handlers.contains(handler)) {
+                return this;
+            }
+            String key = getRoutingKey(handler);
+            Map<String, List<MessageHandlerInterface>> routed = routedHandlers;
+            List<MessageHandlerInterface> generic = genericHandlers;
+            if (key == null || !routedHandlers.containsKey(key)) {
+                generic = remove(genericHandlers, handler);
+            } else {
+                routed = new HashMap<>(routedHandlers);
+                List<MessageHandlerInterface> remaining = remove(routedHandlers.get(key), handler);
+                if (remaining.isEmpty()) {
+                    routed.remove(key);
+                } else {
+                    routed.put(key, remaining);
+                }
+                routed = Collections.unmodifiableMap(routed);
+            }
+            return new Snapshot(remove(handlers, handler), routed, generic);
+        }
+
+        /**
+         * Copy a list with an additional element
+         *
+         * @param list    The list to copy (can be {@code null})
+         * @param handler The element to add
+         * @return The unmodifiable copy
+         */
+        private static List<MessageHandlerInterface> append(
+                List<MessageHandlerInterface> list,
+                MessageHandlerInterface handler
+        ) {
+            List<MessageHandlerInterface> copy = list == null
+                    ? new ArrayList<MessageHandlerInterface>(1)
+                    : new ArrayList<>(list.size() + 1);
+            if (list != null) {
+                copy.addAll(list);
+            }
+            copy.add(handler);
+            return Collections.unmodifiableList(copy);
+        }
+
+        /**
+         * Copy a list without an element
+         *
+         * @param list    The list to copy
+         * @param handler The element to remove
+         * @return The unmodifiable copy
+         */
+        private static List<MessageHandlerInterface> remove(
+                List<MessageHandlerInterface> list,
+                MessageHandlerInterface handler
+        ) {
+            List<MessageHandlerInterface> copy = new ArrayList<>(list);
+            copy.remove(handler);
+            return Collections.unmodifiableList(copy);
+        }
+
+        /**
+         * Get the routing key of a handler
+         *
+         * @param handler The handler
+         * @return The routing key, {@code null} if the handler is not routable
+         */
+        private static String getRoutingKey(MessageHandlerInterface handler) {
+            if (handler instanceof RoutableHandlerInterface) {
+                return ((RoutableHandlerInterface) handler).getRoutingKey();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.macfja.mpv.communication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * The interceptors of a communication.
+ * <p>
+ * The interceptors are kept in a copy-on-write array: registering is rare, calling them is frequent.
+ * When there is no interceptor, {@link #isEmpty()} let the caller skip the interception entirely.
+ * An interceptor failure is logged, and never stop the communication.
+ *
+ * @author MacFJA
+ */
+public final class InterceptorChain {
+    /**
+     * The chain without interceptor
+     */
+    private static final InterceptorInterface[] NONE = new InterceptorInterface[0];
+    /**
+     * The registered interceptors
+     */
+    private volatile InterceptorInterface[] interceptors = NONE;
+    /**
+     * The class logger
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Add an interceptor (at the end of the chain)
+     *
+     * @param interceptor The interceptor
+     */
+    public synchronized void add(InterceptorInterface interceptor) {
+        InterceptorInterface[] current = interceptors;
+        InterceptorInterface[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = interceptor;
+        interceptors = next;
+    }
+
+    /**
+     * Remove an interceptor
+     *
+     * @param interceptor The interceptor
+     */
+    public synchronized void remove(InterceptorInterface interceptor) {
+        InterceptorInterface[] current = interceptors;
+        for (int index = 0; index < current.length; index++) {
+            if (current[index] == interceptor) {
+                InterceptorInterface[] next = new InterceptorInterface[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+                interceptors = next.length == 0 ? NONE : next;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Indicate if there is no interceptor
+     *
+     * @return {@code true} if the chain is empty
+     */
+    public boolean isEmpty() {
+        return interceptors.length == 0;
+    }
+
+    /**
+     * Call the interceptors for a sent command
+     *
+     * @param requestId The request id of the command
+     * @param command   The command
+     * @param line      The JSON line sent
+     */
+    public void fireSend(int requestId, Command command, String line) {
+        InterceptorInterface[] current = interceptors;
+        if (current.length == 0) {
+            return;
+        }
+        long timestamp = System.nanoTime();
+        for (InterceptorInterface interceptor : current) {
+            try {
+                interceptor.onSend(requestId, command, line, timestamp);
+            } catch (RuntimeException e) {
+                logger.warn("Interceptor failure on send", e);
+            }
+        }
+    }
+
+    /**
+     * Call the interceptors for a received line
+     *
+     * @param requestId The request id of the message ({@code null} if none or unknown)
+     * @param buffer    The buffer that contains the line
+     * @param offset    The position of the line in the buffer
+     * @param length    The length of the line
+     */
+    public void fireReceive(Integer requestId, byte[] buffer, int offset, int length) {
+        InterceptorInterface[] current = interceptors;
+        if (current.length == 0) {
+            return;
+        }
+        long timestamp = System.nanoTime();
+        for (InterceptorInterface interceptor : current) {
+            try {
+                interceptor.onReceive(requestId, buffer, offset, length, timestamp);
+            } catch (RuntimeException e) {
+                logger.warn("Interceptor failure on receive", e);
+            }
+        }
+    }
+}
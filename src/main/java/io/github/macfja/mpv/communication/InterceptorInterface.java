@@ -0,0 +1,32 @@
+package io.github.macfja.mpv.communication;
+
+/**
+ * An observer of the raw IPC traffic (like a tracer or a sampler).
+ * <p>
+ * It's called synchronously, by the writing thread for the commands and by the reader thread for the messages,
+ * so it must be fast and must not block. It must not keep the received buffer, that is reused for the next lines.
+ *
+ * @author MacFJA
+ */
+public interface InterceptorInterface {
+    /**
+     * Called before a command is written to MPV
+     *
+     * @param requestId The request id of the command
+     * @param command   The command
+     * @param line      The JSON line sent (without the line feed)
+     * @param timestamp The time of the send (from {@link System#nanoTime()})
+     */
+    void onSend(int requestId, Command command, String line, long timestamp);
+
+    /**
+     * Called when a line is received from MPV, before it's parsed and dispatched
+     *
+     * @param requestId The request id of the message ({@code null} for events or if unknown)
+     * @param buffer    The buffer that contains the line (UTF-8 encoded)
+     * @param offset    The position of the line in the buffer
+     * @param length    The length of the line
+     * @param timestamp The time of the reception (from {@link System#nanoTime()})
+     */
+    void onReceive(Integer requestId, byte[] buffer, int offset, int length, long timestamp);
+}
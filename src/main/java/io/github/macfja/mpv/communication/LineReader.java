@@ -0,0 +1,151 @@
+package io.github.macfja.mpv.communication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Frame newline-delimited lines from a stream, without decoding them.
+ * <p>
+ * The bytes are read in a reusable buffer, and each line is exposed as a slice of this buffer
+ * (valid until the next call to {@link #nextLine()}).
+ * The buffer grow geometrically for long lines, and each byte is only scanned once.
+ *
+ * @author MacFJA
+ */
+public class LineReader {
+    /**
+     * The default initial size of the buffer
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+    /**
+     * The stream to read
+     */
+    private final InputStream stream;
+    /**
+     * The initial size of the buffer
+     */
+    private final int initialCapacity;
+    /**
+     * The buffer
+     */
+    private byte[] buffer;
+    /**
+     * The position of the first byte not yet returned
+     */
+    private int start = 0;
+    /**
+     * The position after the last read byte
+     */
+    private int end = 0;
+    /**
+     * The position of the first byte not yet scanned for a line feed
+     */
+    private int scanned = 0;
+    /**
+     * The position of the current line in the buffer
+     */
+    private int lineOffset = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param stream The stream to read
+     */
+    public LineReader(InputStream stream) {
+        this(stream, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param stream          The stream to read
+     * @param initialCapacity The initial size of the buffer
+     */
+    public LineReader(InputStream stream, int initialCapacity) {
+        this.stream = stream;
+        this.initialCapacity = initialCapacity;
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * Read the next line.
+     * The line terminator ({@code \n} or {@code \r\n}) is not part of the line.
+     *
+     * @return The length of the line, or {@code -1} if the end of the stream is reached
+     * @throws IOException if an I/O error occurs
+     * @see #getBuffer()
+     * @see #getLineOffset()
+     */
+    public int nextLine() throws IOException {
+        while (true) {
+            for (int index = scanned; index < end; index++) {
+                if (buffer[index] == '\n') {
+                    return takeLine(index, index + 1);
+                }
+            }
+            scanned = end;
+
+            if (start == end && buffer.length > initialCapacity) {
+                // Release the memory used by a previous long line
+                buffer = new byte[initialCapacity];
+                start = end = scanned = 0;
+            } else if (end == buffer.length) {
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    scanned -= start;
+                    start = 0;
+                } else {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+
+            int read = stream.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                if (start == end) {
+                    return -1;
+                }
+                // Last line without line feed
+                return takeLine(end, end);
+            }
+            end += read;
+        }
+    }
+
+    /**
+     * Mark a line as read
+     *
+     * @param lineEnd The position after the last byte of the line (the line feed position)
+     * @param next    The position of the next line
+     * @return The length of the line
+     */
+    private int takeLine(int lineEnd, int next) {
+        lineOffset = start;
+        int length = lineEnd - start;
+        if (length > 0 && buffer[lineEnd - 1] == '\r') {
+            length--;
+        }
+        start = next;
+        scanned = next;
+        return length;
+    }
+
+    /**
+     * Get the buffer that contains the current line
+     *
+     * @return The buffer (must not be modified)
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Get the position of the current line in the buffer
+     *
+     * @return The offset
+     */
+    public int getLineOffset() {
+        return lineOffset;
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.macfja.mpv.communication;
+
+import com.alibaba.fastjson.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The implementation of communication interface that stay inside the JVM.
+ * Every line written is given to a {@link Responder} that play the role of MPV, and can push messages back.
+ * No process nor socket is involved, the only cost is the client one (encoding, listening and handler dispatch).
+ *
+ * @author MacFJA
+ */
+public class LoopbackCommunication extends AbstractCommunication {
+    /**
+     * The marker of the end of the stream
+     */
+    private static final byte[] END_OF_STREAM = new byte[0];
+    /**
+     * The responder that simulate MPV
+     */
+    private final Responder responder;
+    /**
+     * The lines pushed to the client, not yet read
+     */
+    private volatile BlockingQueue<byte[]> pushed;
+
+    /**
+     * Constructor.
+     * Every command is answered with a success, without data.
+     */
+    public LoopbackCommunication() {
+        this(new Responder() {
+            @Override
+            public void respond(String line, LoopbackCommunication client) {
+                JSONObject command = JSONObject.parseObject(line);
+                client.push((new JSONObject())
+                        .fluentPut("data", null)
+                        .fluentPut("error", "success")
+                        .fluentPut("request_id", command.get("request_id")));
+            }
+        });
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param responder The responder that simulate MPV
+     */
+    public LoopbackCommunication(Responder responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Send a message to the client, as if MPV sent it.
+     *
+     * @param message The message
+     */
+    public void push(JSONObject message) {
+        push(message.toJSONString());
+    }
+
+    /**
+     * Send a raw line to the client, as if MPV sent it.
+     *
+     * @param line The line (without the line feed)
+     */
+    public void push(String line) {
+        BlockingQueue<byte[]> queue = pushed;
+        if (queue == null) {
+            logger.debug("Loopback closed, line dropped: " + line);
+            return;
+        }
+        queue.add((line + "\n").getBytes(CHARSET));
+    }
+
+    @Override
+    protected void connect() {
+        pushed = new LinkedBlockingQueue<>();
+    }
+
+    @Override
+    protected void disconnect() {
+        BlockingQueue<byte[]> queue = pushed;
+        pushed = null;
+        if (queue != null) {
+            queue.add(END_OF_STREAM);
+        }
+    }
+
+    @Override
+    protected boolean isConnected() {
+        return pushed != null;
+    }
+
+    @Override
+    protected InputStream getInputStream() {
+        final BlockingQueue<byte[]> queue = pushed;
+        return new InputStream() {
+            private byte[] current = new byte[0];
+            private int position = 0;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                int count = read(single, 0, 1);
+                return count <= 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                if (current == END_OF_STREAM) {
+                    return -1;
+                }
+                if (position == current.length) {
+                    try {
+                        current = queue.take();
+                    } catch (InterruptedException e) {
+                        throw new IOException("Loopback reading interrupted", e);
+                    }
+                    position = 0;
+                    if (current == END_OF_STREAM) {
+                        return -1;
+                    }
+                }
+                int count = Math.min(length, current.length - position);
+                System.arraycopy(current, position, bytes, offset, count);
+                position += count;
+                return count;
+            }
+        };
+    }
+
+    @Override
+    protected OutputStream getOutputStream() {
+        return new OutputStream() {
+            private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+            @Override
+            public synchronized void write(int value) {
+                if (value == '\n') {
+                    String content = new String(line.toByteArray(), CHARSET);
+                    line.reset();
+                    responder.respond(content, LoopbackCommunication.this);
+                    return;
+                }
+                line.write(value);
+            }
+
+            @Override
+            public synchronized void write(byte[] bytes, int offset, int length) {
+                int start = offset;
+                for (int index = offset; index < offset + length; index++) {
+                    if (bytes[index] == '\n') {
+                        line.write(bytes, start, index - start);
+                        write('\n');
+                        start = index + 1;
+                    }
+                }
+                line.write(bytes, start, offset + length - start);
+            }
+        };
+    }
+
+    /**
+     * The in-JVM counterpart of the client, that play the role of MPV.
+     */
+    public interface Responder {
+        /**
+         * Process a line written by the client.
+         * It's called in the thread that write the command.
+         *
+         * @param line   The received line (without the line feed)
+         * @param client The communication to answer to (with {@link LoopbackCommunication#push(JSONObject)})
+         */
+        void respond(String line, LoopbackCommunication client);
+    }
+}
@@ -0,0 +1,536 @@
+package io.github.macfja.mpv.communication;
+
+import io.github.macfja.mpv.communication.handling.RoutingKey;
+
+import java.nio.charset.Charset;
+
+/**
+ * The routing fields of a MPV message ({@code event}, {@code name}, {@code id} and {@code request_id}),
+ * extracted with a light scan of the raw bytes, without building the JSON object.
+ * A number or boolean {@code data} is also decoded, so it can be read without parsing the message.
+ * <p>
+ * Only the top-level fields are read, every other value is skipped.
+ *
+ * @author MacFJA
+ */
+public class MessageHeader {
+    /**
+     * The encoding of MPV messages
+     */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    /**
+     * The {@code event} field name
+     */
+    private static final byte[] EVENT = "event".getBytes(CHARSET);
+    /**
+     * The {@code name} field name
+     */
+    private static final byte[] NAME = "name".getBytes(CHARSET);
+    /**
+     * The {@code id} field name
+     */
+    private static final byte[] ID = "id".getBytes(CHARSET);
+    /**
+     * The {@code request_id} field name
+     */
+    private static final byte[] REQUEST_ID = "request_id".getBytes(CHARSET);
+    /**
+     * The {@code data} field name
+     */
+    private static final byte[] DATA = "data".getBytes(CHARSET);
+    /**
+     * The {@code true} literal
+     */
+    private static final byte[] TRUE = "true".getBytes(CHARSET);
+    /**
+     * The {@code false} literal
+     */
+    private static final byte[] FALSE = "false".getBytes(CHARSET);
+    /**
+     * The type of a data that is missing, or that is not a number nor a boolean
+     */
+    private static final int DATA_OTHER = 0;
+    /**
+     * The type of a number data
+     */
+    private static final int DATA_NUMBER = 1;
+    /**
+     * The type of a boolean data
+     */
+    private static final int DATA_BOOLEAN = 2;
+    /**
+     * The largest integer that a double represents exactly (2^53)
+     */
+    private static final long MAX_EXACT_INTEGER = 1L << 53;
+    /**
+     * The powers of ten that a double represents exactly
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The event name
+     */
+    private String event;
+    /**
+     * The property name
+     */
+    private String name;
+    /**
+     * The observation id
+     */
+    private int id;
+    /**
+     * The command request id
+     */
+    private Integer requestId;
+    /**
+     * The type of the data
+     */
+    private int dataType = DATA_OTHER;
+    /**
+     * The data, if it's a number
+     */
+    private double doubleData;
+    /**
+     * The data as a long (truncated), if it's a number
+     */
+    private long longData;
+    /**
+     * The data, if it's a boolean
+     */
+    private boolean booleanData;
+
+    /**
+     * Private constructor, use {@link #scan(byte[], int, int)}
+     */
+    private MessageHeader() {
+    }
+
+    /**
+     * Get the event name
+     *
+     * @return The event name, {@code null} if the message is not an event
+     */
+    public String getEvent() {
+        return event;
+    }
+
+    /**
+     * Get the property name
+     *
+     * @return The property name, {@code null} if the message don't have one
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the observation id (of a property change)
+     *
+     * @return The id, {@code 0} if the message don't have one
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get the command request id (of a response)
+     *
+     * @return The request id, {@code null} if the message don't have one
+     */
+    public Integer getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Get the data of the message as a double
+     *
+     * @param defaultValue The value to return if the data is not a number
+     * @return The data
+     */
+    public double getDataAsDouble(double defaultValue) {
+        return dataType == DATA_NUMBER ? doubleData : defaultValue;
+    }
+
+    /**
+     * Get the data of the message as a long (a decimal number is truncated)
+     *
+     * @param defaultValue The value to return if the data is not a number
+     * @return The data
+     */
+    public long getDataAsLong(long defaultValue) {
+        return dataType == DATA_NUMBER ? longData : defaultValue;
+    }
+
+    /**
+     * Get the data of the message as a boolean
+     *
+     * @param defaultValue The value to return if the data is not a boolean
+     * @return The data
+     */
+    public boolean getDataAsBoolean(boolean defaultValue) {
+        return dataType == DATA_BOOLEAN ? booleanData : defaultValue;
+    }
+
+    /**
+     * Get the routing keys of the message
+     *
+     * @return The list of keys (can be empty)
+     * @see RoutingKey#of(com.alibaba.fastjson.JSONObject)
+     */
+    public String[] getRoutingKeys() {
+        return RoutingKey.of(event, name, id, requestId != null);
+    }
+
+    /**
+     * Read the routing fields of a raw JSON message.
+     *
+     * @param buffer The buffer that contains the message (UTF-8 encoded)
+     * @param offset The position of the message in the buffer
+     * @param length The length of the message
+     * @return The header, {@code null} if the message can't be read with a light scan (it must be fully parsed)
+     */
+    public static MessageHeader scan(byte[] buffer, int offset, int length) {
+        return new Scanner(buffer, offset, offset + length).scan();
+    }
+
+    /**
+     * The actual scanner of a message.
+     * Every unexpected content stop the scan.
+     */
+    private static class Scanner {
+        /**
+         * The scanned bytes
+         */
+        private final byte[] buffer;
+        /**
+         * The position after the message
+         */
+        private final int end;
+        /**
+         * The current position
+         */
+        private int position;
+
+        /**
+         * Constructor.
+         *
+         * @param buffer The scanned bytes
+         * @param start  The position of the message
+         * @param end    The position after the message
+         */
+        Scanner(byte[] buffer, int start, int end) {
+            this.buffer = buffer;
+            this.position = start;
+            this.end = end;
+        }
+
+        /**
+         * Scan the message
+         *
+         * @return The header, {@code null} if the message is not supported
+         */
+        MessageHeader scan() {
+            MessageHeader header = new MessageHeader();
+            if (!consume('{')) {
+                return null;
+            }
+            if (consume('}')) {
+                return header;
+            }
+            do {
+                skipWhitespaces();
+                int keyStart = position + 1;
+                if (!skipString(false)) {
+                    return null;
+                }
+                int keyEnd = position - 1;
+                if (!consume(':')) {
+                    return null;
+                }
+                skipWhitespaces();
+                boolean valid;
+                if (equals(keyStart, keyEnd, EVENT)) {
+                    header.event = readString();
+                    valid = header.event != null;
+                } else if (equals(keyStart, keyEnd, NAME)) {
+                    header.name = readString();
+                    valid = header.name != null;
+                } else if (equals(keyStart, keyEnd, ID)) {
+                    Integer id = readInteger();
+                    valid = id != null;
+                    header.id = valid ? id : 0;
+                } else if (equals(keyStart, keyEnd, REQUEST_ID)) {
+                    header.requestId = readInteger();
+                    valid = header.requestId != null;
+                } else if (equals(keyStart, keyEnd, DATA)) {
+                    valid = readData(header);
+                } else {
+                    valid = skipValue();
+                }
+                if (!valid) {
+                    return null;
+                }
+            } while (consume(','));
+
+            return consume('}') ? header : null;
+        }
+
+        /**
+         * Skip whitespaces, then consume an expected byte
+         *
+         * @param expected The expected byte
+         * @return {@code true} if the byte was found (and consumed)
+         */
+        private boolean consume(char expected) {
+            skipWhitespaces();
+            if (position < end && buffer[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Move the position after the whitespaces
+         */
+        private void skipWhitespaces() {
+            while (position < end
+                    && (buffer[position] == ' ' || buffer[position] == '\t'
+                    || buffer[position] == '\r' || buffer[position] == '\n')) {
+                position++;
+            }
+        }
+
+        /**
+         * Compare a part of the buffer with an expected value
+         *
+         * @param start    The start of the part
+         * @param stop     The end of the part
+         * @param expected The expected value
+         * @return {@code true} if they are the same
+         */
+        private boolean equals(int start, int stop, byte[] expected) {
+            if (stop - start != expected.length) {
+                return false;
+            }
+            for (int index = 0; index < expected.length; index++) {
+                if (buffer[start + index] != expected[index]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Read a string value without escaped character
+         *
+         * @return The string, {@code null} if the value is not a simple string
+         */
+        private String readString() {
+            int start = position + 1;
+            if (!skipString(false)) {
+                return null;
+            }
+            return new String(buffer, start, position - 1 - start, CHARSET);
+        }
+
+        /**
+         * Read an integer value
+         *
+         * @return The integer, {@code null} if the value is not an integer
+         */
+        private Integer readInteger() {
+            int start = position;
+            if (position < end && buffer[position] == '-') {
+                position++;
+            }
+            long value = 0;
+            int digits = 0;
+            while (position < end && buffer[position] >= '0' && buffer[position] <= '9') {
+                value = value * 10 + (buffer[position] - '0');
+                position++;
+                digits++;
+                if (digits > 10) {
+                    return null;
+                }
+            }
+            if (digits == 0 || (position < end && (buffer[position] == '.'
+                    || buffer[position] == 'e' || buffer[position] == 'E'))) {
+                return null;
+            }
+            if (buffer[start] == '-') {
+                value = -value;
+            }
+            if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+                return null;
+            }
+            return (int) value;
+        }
+
+        /**
+         * Read the data value: decode it if it's a number or a boolean, skip it otherwise
+         *
+         * @param header The header where the data is stored
+         * @return {@code true} if a value was found
+         */
+        private boolean readData(MessageHeader header) {
+            header.dataType = DATA_OTHER;
+            if (position >= end) {
+                return false;
+            }
+            byte current = buffer[position];
+            if (current == '-' || (current >= '0' && current <= '9')) {
+                return readNumber(header);
+            }
+            int start = position;
+            if (!skipValue()) {
+                return false;
+            }
+            if (equals(start, position, TRUE)) {
+                header.dataType = DATA_BOOLEAN;
+                header.booleanData = true;
+            } else if (equals(start, position, FALSE)) {
+                header.dataType = DATA_BOOLEAN;
+                header.booleanData = false;
+            }
+            return true;
+        }
+
+        /**
+         * Read a number value, without intermediate object for the common decimals
+         *
+         * @param header The header where the number is stored
+         * @return {@code true} if a number was found
+         */
+        private boolean readNumber(MessageHeader header) {
+            int start = position;
+            boolean negative = buffer[position] == '-';
+            if (negative) {
+                position++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int decimals = 0;
+            boolean exact = true;
+            boolean fraction = false;
+            while (position < end) {
+                byte current = buffer[position];
+                if (current >= '0' && current <= '9') {
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (current - '0');
+                    } else {
+                        exact = false;
+                    }
+                    digits++;
+                    if (fraction) {
+                        decimals++;
+                    }
+                } else if (current == '.' && !fraction) {
+                    fraction = true;
+                } else if (current == 'e' || current == 'E' || current == '+' || (current == '-' && position > start)) {
+                    exact = false;
+                } else {
+                    break;
+                }
+                position++;
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (exact && mantissa <= MAX_EXACT_INTEGER && decimals < POWERS_OF_TEN.length) {
+                // Both are exact, so the division is correctly rounded
+                double value = mantissa / POWERS_OF_TEN[decimals];
+                header.doubleData = negative ? -value : value;
+            } else {
+                try {
+                    header.doubleData = Double.parseDouble(new String(buffer, start, position - start, CHARSET));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            if (exact && decimals == 0) {
+                header.longData = negative ? -mantissa : mantissa;
+            } else {
+                header.longData = (long) header.doubleData;
+            }
+            header.dataType = DATA_NUMBER;
+            return true;
+        }
+
+        /**
+         * Move the position after a string
+         *
+         * @param allowEscape Indicate if escaped characters are accepted
+         * @return {@code true} if a string was found
+         */
+        private boolean skipString(boolean allowEscape) {
+            skipWhitespaces();
+            if (position >= end || buffer[position] != '"') {
+                return false;
+            }
+            position++;
+            while (position < end) {
+                byte current = buffer[position++];
+                if (current == '"') {
+                    return true;
+                }
+                if (current == '\\') {
+                    if (!allowEscape) {
+                        return false;
+                    }
+                    position++;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Move the position after any value
+         *
+         * @return {@code true} if a value was found
+         */
+        private boolean skipValue() {
+            if (position >= end) {
+                return false;
+            }
+            byte current = buffer[position];
+            if (current == '"') {
+                return skipString(true);
+            }
+            if (current == '{' || current == '[') {
+                int depth = 0;
+                while (position < end) {
+                    current = buffer[position];
+                    if (current == '"') {
+                        if (!skipString(true)) {
+                            return false;
+                        }
+                        continue;
+                    }
+                    position++;
+                    if (current == '{' || current == '[') {
+                        depth++;
+                    } else if (current == '}' || current == ']') {
+                        depth--;
+                        if (depth == 0) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            // Number, boolean or null
+            int start = position;
+            while (position < end && buffer[position] != ',' && buffer[position] != '}'
+                    && buffer[position] != ' ' && buffer[position] != '\t'
+                    && buffer[position] != '\r' && buffer[position] != '\n') {
+                position++;
+            }
+            return position > start;
+        }
+    }
+}
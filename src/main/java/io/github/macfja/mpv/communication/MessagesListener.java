@@ -1,14 +1,22 @@
 package io.github.macfja.mpv.communication;
 
+import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import io.github.macfja.mpv.communication.handling.HandlerAwareInterface;
 import io.github.macfja.mpv.communication.handling.MessageHandlerInterface;
+import io.github.macfja.mpv.communication.handling.ResponseHandler;
+import io.github.macfja.mpv.communication.handling.RoutingKey;
+import io.github.macfja.mpv.metrics.MetricNames;
+import io.github.macfja.mpv.metrics.MetricsRegistryInterface;
+import io.github.macfja.mpv.metrics.NoopMetricsRegistry;
 import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * MessagesListener Class.
@@ -17,6 +25,23 @@ import java.util.Scanner;
  * @author MacFJA
  */
 public class MessagesListener extends Thread implements HandlerAwareInterface {
+    /**
+     * The encoding of MPV messages
+     */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    /**
+     * The name of the dispatch timer of each handler class
+     */
+    private static final ClassValue<String> DISPATCH_TIMERS = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return MetricNames.HANDLER_DISPATCH + type.getName();
+        }
+    };
+    /**
+     * The decoder of received lines (reused, only used by the reading thread)
+     */
+    private final CharsetDecoder decoder = CHARSET.newDecoder();
     /**
      * The stream to read
      */
@@ -28,11 +53,19 @@ public class MessagesListener extends Thread implements HandlerAwareInterface {
     /**
      * Indicate if the listener is running
      */
-    private boolean running = false;
+    private volatile boolean running = false;
+    /**
+     * The message handlers
+     */
+    private final HandlerRegistry registry;
+    /**
+     * The registry of the measures
+     */
+    private volatile MetricsRegistryInterface metrics = NoopMetricsRegistry.INSTANCE;
     /**
-     * The list of all message handler
+     * The interceptors of the received lines
      */
-    private List<MessageHandlerInterface> handlers = new ArrayList<>();
+    private volatile InterceptorChain interceptors = new InterceptorChain();
 
     /**
      * Indicate if the listener is running
@@ -43,36 +76,81 @@ public class MessagesListener extends Thread implements HandlerAwareInterface {
         return running;
     }
 
+    /**
+     * Set the registry of the measures (received lines, parse time, handlers dispatch time)
+     *
+     * @param metrics The registry
+     */
+    public void setMetrics(MetricsRegistryInterface metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Set the interceptors of the received lines
+     *
+     * @param interceptors The interceptors (can be shared with other listeners)
+     */
+    public void setInterceptors(InterceptorChain interceptors) {
+        this.interceptors = interceptors;
+    }
+
     @Override
     public void addMessageHandler(MessageHandlerInterface handlerInterface) {
-        handlers.add(handlerInterface);
+        registry.addMessageHandler(handlerInterface);
     }
 
     @Override
     public void removeMessageHandler(MessageHandlerInterface handlerInterface) {
-        handlers.remove(handlerInterface);
+        registry.removeMessageHandler(handlerInterface);
     }
 
     @Override
     public List<MessageHandlerInterface> getMessageHandlers() {
-        return handlers;
+        return registry.getMessageHandlers();
     }
 
     @Override
     public void clearMessageHandlers() {
-        handlers.clear();
+        registry.clearMessageHandlers();
     }
 
     /**
-     * Receive a (JSON) line from MPV IPC and search for handler(s) to process it
+     * Receive a (JSON) line from MPV IPC and search for handler(s) to process it.
+     * Only the handlers indexed with one of the message routing keys, and the generic handlers, are tested.
      *
      * @param line The received line in JSON format
      */
     public void handleLine(JSONObject line) {
+        HandlerRegistry.Snapshot handlers = registry.getSnapshot();
+        for (String key : RoutingKey.of(line)) {
+            List<MessageHandlerInterface> routed = handlers.getRoutedHandlers(key);
+            if (routed != null) {
+                dispatch(line, routed);
+            }
+        }
+        dispatch(line, handlers.getGenericHandlers());
+    }
+
+    /**
+     * Send the line to every handler of a list that can handle it
+     *
+     * @param line     The received line
+     * @param handlers The candidate handlers
+     */
+    private void dispatch(JSONObject line, List<MessageHandlerInterface> handlers) {
+        MetricsRegistryInterface metrics = this.metrics;
         for (MessageHandlerInterface handler : handlers) {
             if (handler.canHandle(line)) {
-                logger.debug("Handling: " + line.toJSONString() + " with: " + handler.toString());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Handling: " + line.toJSONString() + " with: " + handler.toString());
+                }
+                if (!metrics.isEnabled()) {
+                    handler.handle(line);
+                    continue;
+                }
+                long start = System.nanoTime();
                 handler.handle(line);
+                metrics.record(DISPATCH_TIMERS.get(handler.getClass()), System.nanoTime() - start);
             }
         }
     }
@@ -80,24 +158,147 @@ public class MessagesListener extends Thread implements HandlerAwareInterface {
     @Override
     public void run() {
         running = true;
-        Scanner sc = new Scanner(stream);
+        LineReader reader = new LineReader(stream);
 
-        while (sc.hasNextLine()) {
-            final String line = sc.nextLine();
-            logger.debug("Receive: " + line);
-            if (line == null || !line.startsWith("{")) {
-                logger.debug(" - Not a valid JSON");
-                continue;
+        try {
+            int length;
+            while ((length = reader.nextLine()) >= 0) {
+                handleLine(reader.getBuffer(), reader.getLineOffset(), length);
             }
-
-            JSONObject object = JSONObject.parseObject(line);
-            handleLine(object);
+        } catch (IOException e) {
+            logger.debug("Unable to read MPV output", e);
         }
 
         logger.info("The listener ended.");
         running = false;
     }
 
+    /**
+     * Receive a raw line from MPV IPC, parse it and search for handler(s) to process it.
+     * The bytes are parsed directly, without an intermediate String.
+     * This method is not thread-safe, it's meant to be called by the reading thread only.
+     *
+     * @param buffer The buffer that contains the line (UTF-8 encoded)
+     * @param offset The position of the line in the buffer
+     * @param length The length of the line
+     */
+    public void handleLine(byte[] buffer, int offset, int length) {
+        MetricsRegistryInterface metrics = this.metrics;
+        metrics.increment(MetricNames.LINES_RECEIVED);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Receive: " + new String(buffer, offset, length, CHARSET));
+        }
+        while (length > 0 && (buffer[offset] == ' ' || buffer[offset] == '\t')) {
+            offset++;
+            length--;
+        }
+        if (length == 0 || buffer[offset] != '{') {
+            logger.debug(" - Not a valid JSON");
+            return;
+        }
+
+        HandlerRegistry.Snapshot handlers = registry.getSnapshot();
+        MessageHeader header = MessageHeader.scan(buffer, offset, length);
+        InterceptorChain interceptors = this.interceptors;
+        if (!interceptors.isEmpty()) {
+            interceptors.fireReceive(header == null ? null : header.getRequestId(), buffer, offset, length);
+        }
+        // Only routed handlers: the message can be discarded from its routing fields
+        if (header != null && handlers.getGenericHandlers().isEmpty()) {
+            if (!isWanted(header, handlers)) {
+                logger.debug(" - No handler");
+                return;
+            }
+            if (handleRawResponse(header, buffer, offset, length, handlers)) {
+                return;
+            }
+        }
+
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        JSONObject object = JSON.parseObject(buffer, offset, length, decoder, JSONObject.class);
+        if (metrics.isEnabled()) {
+            metrics.record(MetricNames.LINE_PARSE, System.nanoTime() - start);
+        }
+        handleLine(object);
+    }
+
+    /**
+     * Give a response to its handlers without parsing it, if they all accept raw responses
+     *
+     * @param header   The routing fields of the message
+     * @param buffer   The buffer that contains the line
+     * @param offset   The position of the line in the buffer
+     * @param length   The length of the line
+     * @param handlers The registered handlers (without generic handler)
+     * @return {@code true} if the response was handled, {@code false} if it must be parsed
+     */
+    private boolean handleRawResponse(MessageHeader header, byte[] buffer, int offset, int length, HandlerRegistry.Snapshot handlers) {
+        Integer requestId = header.getRequestId();
+        if (header.getEvent() != null || requestId == null) {
+            return false;
+        }
+        List<MessageHandlerInterface> routed = handlers.getRoutedHandlers(RoutingKey.RESPONSE);
+        if (routed == null) {
+            return false;
+        }
+        for (MessageHandlerInterface handler : routed) {
+            if (!(handler instanceof ResponseHandler)) {
+                return false;
+            }
+            if (((ResponseHandler) handler).canHandle(requestId) && !(handler instanceof RawResponseHandlerInterface)) {
+                return false;
+            }
+        }
+
+        MetricsRegistryInterface metrics = this.metrics;
+        MpvResponse response = null;
+        for (MessageHandlerInterface handler : routed) {
+            if (!((ResponseHandler) handler).canHandle(requestId)) {
+                continue;
+            }
+            if (response == null) {
+                // The buffer is reused for the next lines
+                response = new MpvResponse(header, Arrays.copyOfRange(buffer, offset, offset + length));
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Handling: response " + requestId + " with: " + handler.toString());
+            }
+            if (!metrics.isEnabled()) {
+                ((RawResponseHandlerInterface) handler).handleResponse(response);
+                continue;
+            }
+            long start = System.nanoTime();
+            ((RawResponseHandlerInterface) handler).handleResponse(response);
+            metrics.record(DISPATCH_TIMERS.get(handler.getClass()), System.nanoTime() - start);
+        }
+        return true;
+    }
+
+    /**
+     * Check if at least one handler may handle a message
+     *
+     * @param header   The routing fields of the message
+     * @param handlers The registered handlers
+     * @return {@code true} if a handler may be interested
+     */
+    private boolean isWanted(MessageHeader header, HandlerRegistry.Snapshot handlers) {
+        for (String key : header.getRoutingKeys()) {
+            List<MessageHandlerInterface> routed = handlers.getRoutedHandlers(key);
+            if (routed == null) {
+                continue;
+            }
+            if (!RoutingKey.RESPONSE.equals(key)) {
+                return true;
+            }
+            for (MessageHandlerInterface handler : routed) {
+                if (!(handler instanceof ResponseHandler) || ((ResponseHandler) handler).canHandle(header.getRequestId())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Start the listen with a stream.
      *
@@ -105,6 +306,7 @@ public class MessagesListener extends Thread implements HandlerAwareInterface {
      */
     public synchronized void start(InputStream stream) {
         this.stream = stream;
+        running = true;
         super.start();
     }
 
@@ -115,8 +317,19 @@ public class MessagesListener extends Thread implements HandlerAwareInterface {
      * @param logger The logger to use
      */
     public MessagesListener(Logger logger) {
+        this(logger, new HandlerRegistry());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param logger   The logger to use
+     * @param registry The message handlers (can be shared with other listeners)
+     */
+    public MessagesListener(Logger logger, HandlerRegistry registry) {
         super();
         this.logger = logger;
+        this.registry = registry;
     }
 
 
@@ -127,8 +340,7 @@ public class MessagesListener extends Thread implements HandlerAwareInterface {
      * @param logger The logger to use
      */
     public MessagesListener(InputStream stream, Logger logger) {
-        super();
+        this(logger);
         this.stream = stream;
-        this.logger = logger;
     }
 }
@@ -0,0 +1,196 @@
+package io.github.macfja.mpv.communication;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+
+import java.nio.charset.Charset;
+
+/**
+ * The response of MPV to a command.
+ * It's built from the already parsed message, so its fields can be read without parsing the response again.
+ * It can also be built from the raw response: the message is then only parsed if it's needed,
+ * a number or boolean data is read without building the JSON object.
+ *
+ * @author MacFJA
+ */
+public class MpvResponse {
+    /**
+     * The value of the error field of a successful command
+     */
+    public static final String SUCCESS = "success";
+    /**
+     * The encoding of MPV messages
+     */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    /**
+     * The parsed message (lazily built from the raw response)
+     */
+    private volatile JSONObject message;
+    /**
+     * The raw response ({@code null} if the response is built from the parsed message)
+     */
+    private final byte[] line;
+    /**
+     * The fields read from the raw response ({@code null} if the response is built from the parsed message)
+     */
+    private final MessageHeader header;
+    /**
+     * The message in JSON format (lazily built)
+     */
+    private String raw;
+
+    /**
+     * Constructor.
+     *
+     * @param message The parsed response message
+     */
+    public MpvResponse(JSONObject message) {
+        this.message = message;
+        this.line = null;
+        this.header = null;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param header The fields of the response, read with {@link MessageHeader#scan(byte[], int, int)}
+     * @param line   The raw response (UTF-8 encoded, must not be modified)
+     */
+    public MpvResponse(MessageHeader header, byte[] line) {
+        this.header = header;
+        this.line = line;
+    }
+
+    /**
+     * Get the error status of the command
+     *
+     * @return The error ({@code "success"} if the command succeed)
+     */
+    public String getError() {
+        return getMessage().getString("error");
+    }
+
+    /**
+     * Indicate if the command succeed
+     *
+     * @return {@code true} if the command is a success
+     */
+    public boolean isSuccess() {
+        return SUCCESS.equals(getMessage().get("error"));
+    }
+
+    /**
+     * Get the id of the request that this response answer
+     *
+     * @return The request id, {@code null} if the response doesn't have one
+     */
+    public Integer getRequestId() {
+        if (header != null) {
+            return header.getRequestId();
+        }
+        return getMessage().getInteger("request_id");
+    }
+
+    /**
+     * Indicate if the response have a data (not {@code null})
+     *
+     * @return {@code true} if there is a data
+     */
+    public boolean hasData() {
+        return getMessage().get("data") != null;
+    }
+
+    /**
+     * Get the data of the response, as parsed
+     *
+     * @return The data (can be {@code null})
+     */
+    public Object getData() {
+        return getMessage().get("data");
+    }
+
+    /**
+     * Get the data of the response
+     *
+     * @param type The classname of the data type
+     * @param <T>  The classname of the data type
+     * @return The data (can be {@code null})
+     */
+    public <T> T getData(Class<T> type) {
+        return getMessage().getObject("data", type);
+    }
+
+    /**
+     * Get the data of the response as a double, without conversion object
+     *
+     * @param defaultValue The value to return if the data is not a number
+     * @return The data
+     */
+    public double getDataAsDouble(double defaultValue) {
+        if (header != null) {
+            return header.getDataAsDouble(defaultValue);
+        }
+        Object data = message.get("data");
+        return data instanceof Number ? ((Number) data).doubleValue() : defaultValue;
+    }
+
+    /**
+     * Get the data of the response as a long, without conversion object
+     *
+     * @param defaultValue The value to return if the data is not a number
+     * @return The data
+     */
+    public long getDataAsLong(long defaultValue) {
+        if (header != null) {
+            return header.getDataAsLong(defaultValue);
+        }
+        Object data = message.get("data");
+        return data instanceof Number ? ((Number) data).longValue() : defaultValue;
+    }
+
+    /**
+     * Get the data of the response as a boolean, without conversion object
+     *
+     * @param defaultValue The value to return if the data is not a boolean
+     * @return The data
+     */
+    public boolean getDataAsBoolean(boolean defaultValue) {
+        if (header != null) {
+            return header.getDataAsBoolean(defaultValue);
+        }
+        Object data = message.get("data");
+        return data instanceof Boolean ? (Boolean) data : defaultValue;
+    }
+
+    /**
+     * Get the parsed message
+     *
+     * @return The JSON object of the response (must not be modified)
+     */
+    public JSONObject getMessage() {
+        JSONObject parsed = message;
+        if (parsed == null) {
+            // Same features as the other messages, so decimal numbers are BigDecimal whatever the path
+            parsed = JSON.parseObject(line, JSONObject.class);
+            message = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * Get the message in JSON format
+     *
+     * @return The raw response
+     */
+    public String getRaw() {
+        if (raw == null) {
+            raw = line == null ? message.toJSONString() : new String(line, CHARSET);
+        }
+        return raw;
+    }
+
+    @Override
+    public String toString() {
+        return getRaw();
+    }
+}
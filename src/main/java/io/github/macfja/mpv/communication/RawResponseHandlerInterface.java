@@ -0,0 +1,18 @@
+package io.github.macfja.mpv.communication;
+
+/**
+ * A response handler that can receive the responses without their parsed JSON object.
+ * When every handler of a response implements it, the listener doesn't parse the response:
+ * the handlers receive a {@link MpvResponse} built from the raw line.
+ *
+ * @author MacFJA
+ */
+public interface RawResponseHandlerInterface {
+    /**
+     * Process a response.
+     * It's called by the thread that read MPV messages, so it must be fast.
+     *
+     * @param response The response (its message is only parsed if it's read)
+     */
+    void handleResponse(MpvResponse response);
+}
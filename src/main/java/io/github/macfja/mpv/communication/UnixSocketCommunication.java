@@ -0,0 +1,193 @@
+package io.github.macfja.mpv.communication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The implementation of communication interface that connect directly to the MPV IPC socket.
+ * It use a NIO {@link SocketChannel} over a Unix domain address, so no external process is needed.
+ * Unix domain socket channel are only available since Java 16,
+ * use {@link UnixSocketCommunication#isSupported()} to check if it can be used (or fallback to {@link Communication}).
+ *
+ * @author MacFJA
+ * @see AbstractCommunication#createDefault()
+ */
+public class UnixSocketCommunication extends AbstractCommunication {
+    /**
+     * The {@code UnixDomainSocketAddress.of(String)} method (Java 16+)
+     */
+    private static final Method ADDRESS_FACTORY;
+    /**
+     * The {@code SocketChannel.open(ProtocolFamily)} method (Java 15+)
+     */
+    private static final Method CHANNEL_FACTORY;
+    /**
+     * The {@code StandardProtocolFamily.UNIX} constant (Java 16+)
+     */
+    private static final ProtocolFamily UNIX_FAMILY;
+
+    static {
+        Method addressFactory = null;
+        Method channelFactory = null;
+        ProtocolFamily unixFamily = null;
+        try {
+            addressFactory = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class);
+            channelFactory = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+            unixFamily = StandardProtocolFamily.valueOf("UNIX");
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalArgumentException e) {
+            addressFactory = null;
+            channelFactory = null;
+            unixFamily = null;
+        }
+        ADDRESS_FACTORY = addressFactory;
+        CHANNEL_FACTORY = channelFactory;
+        UNIX_FAMILY = unixFamily;
+    }
+
+    /**
+     * The connection to the MPV socket
+     */
+    private SocketChannel channel;
+
+    /**
+     * Indicate if the running JVM can open Unix domain socket channel
+     *
+     * @return {@code true} if the class can be used
+     */
+    public static boolean isSupported() {
+        return UNIX_FAMILY != null;
+    }
+
+    @Override
+    protected void connect() throws IOException {
+        if (!isSupported()) {
+            throw new IOException("Unix domain socket are not supported by this JVM");
+        }
+        SocketChannel newChannel = openChannel();
+        try {
+            newChannel.connect(createAddress(getSocketPath()));
+        } catch (IOException e) {
+            newChannel.close();
+            throw e;
+        }
+        channel = newChannel;
+    }
+
+    @Override
+    protected void disconnect() throws IOException {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            channel = null;
+        }
+    }
+
+    @Override
+    protected boolean isConnected() {
+        return channel != null && channel.isConnected();
+    }
+
+    @Override
+    protected InputStream getInputStream() {
+        final SocketChannel source = channel;
+        // Channels.newInputStream can't be used: it lock the channel during a read, and so block every write
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                int count = read(single, 0, 1);
+                return count <= 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                return source.read(ByteBuffer.wrap(bytes, offset, length));
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    @Override
+    protected OutputStream getOutputStream() {
+        final SocketChannel destination = channel;
+        return new OutputStream() {
+            @Override
+            public void write(int value) throws IOException {
+                write(new byte[]{(byte) value}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+                while (buffer.hasRemaining()) {
+                    destination.write(buffer);
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                destination.close();
+            }
+        };
+    }
+
+    /**
+     * Open a new Unix domain socket channel
+     *
+     * @return The (not connected) channel
+     * @throws IOException If the channel can't be created
+     */
+    private static SocketChannel openChannel() throws IOException {
+        return (SocketChannel) invoke(CHANNEL_FACTORY, null, UNIX_FAMILY);
+    }
+
+    /**
+     * Create the Unix domain socket address of a path
+     *
+     * @param path The path to the socket
+     * @return The socket address
+     * @throws IOException If the address can't be created
+     */
+    private static SocketAddress createAddress(String path) throws IOException {
+        return (SocketAddress) invoke(ADDRESS_FACTORY, null, path);
+    }
+
+    /**
+     * Call a method found by reflection, and unwrap the error
+     *
+     * @param method    The method to call
+     * @param target    The object on which the method is call ({@code null} for static method)
+     * @param arguments The method arguments
+     * @return The method result
+     * @throws IOException If the method failed
+     */
+    private static Object invoke(Method method, Object target, Object... arguments) throws IOException {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -2,13 +2,24 @@ package io.github.macfja.mpv.communication.handling;
 
 import com.alibaba.fastjson.JSONObject;
 
+import java.util.concurrent.Executor;
+
 /**
  * An abstract class for message handler that allow parallel work.
- * The handling of a message is launch in a new thread
+ * The handling of a message is launch by an executor (by default in a new thread)
  *
  * @author MacFJA
  */
 public abstract class AbstractMessageHandler implements MessageHandlerInterface {
+    /**
+     * The default executor: one thread per message
+     */
+    private static final Executor DEFAULT_EXECUTOR = HandlerExecutor.threadPerMessage();
+    /**
+     * The executor that run the workers ({@code null} for the default one)
+     */
+    private volatile Executor executor;
+
     @Override
     public void handle(JSONObject message) {
         Runnable worker = doHandle(message);
@@ -16,7 +27,35 @@ public abstract class AbstractMessageHandler implements MessageHandlerInterface
         if (worker == null) {
             return;
         }
-        new Thread(worker).start();
+        execute(worker);
+    }
+
+    /**
+     * Run a task with the handler executor
+     *
+     * @param task The task to run
+     */
+    protected void execute(Runnable task) {
+        Executor target = executor;
+        (target == null ? DEFAULT_EXECUTOR : target).execute(task);
+    }
+
+    /**
+     * Get the executor that run the workers
+     *
+     * @return The executor, {@code null} if the default (thread per message) is used
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Set the executor that run the workers
+     *
+     * @param executor The executor, {@code null} to use the default (thread per message)
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
     }
 
     /**
@@ -0,0 +1,100 @@
+package io.github.macfja.mpv.communication.handling;
+
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Abstract ConflatingPropertyObserver class.
+ * Observer of a property changes, that only receive the most recent value.
+ * <p>
+ * The changes that arrive while the observer is busy overwrite a single pending value instead of being queued,
+ * so a slow observer never lag behind, and always end with the last value of the property.
+ * The calls to {@link #changed(String, Object, Integer)} are never concurrent.
+ *
+ * @author MacFJA
+ */
+abstract public class ConflatingPropertyObserver extends PropertyObserver {
+    /**
+     * The most recent change not yet delivered
+     */
+    private final AtomicReference<JSONObject> pending = new AtomicReference<>();
+    /**
+     * Indicate if the delivery task is submitted (or running)
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    /**
+     * The number of changes overwritten before being delivered
+     */
+    private final AtomicLong conflated = new AtomicLong();
+    /**
+     * The task that deliver the pending change
+     */
+    private final Runnable delivery = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                JSONObject message;
+                while ((message = pending.getAndSet(null)) != null) {
+                    changed(message.getString("name"), message.get("data"), message.getInteger("id"));
+                }
+            } finally {
+                scheduled.set(false);
+                schedule();
+            }
+        }
+    };
+
+    /**
+     * Create a new conflating property observer for a property name and a group
+     *
+     * @param propertyName The name of the property to observe
+     * @param id           The id of the group to be associated with
+     */
+    public ConflatingPropertyObserver(String propertyName, Integer id) {
+        super(propertyName, id);
+    }
+
+    /**
+     * Create a new conflating property observer (with the default group of the property)
+     *
+     * @param propertyName The name of the property to observe
+     */
+    public ConflatingPropertyObserver(String propertyName) {
+        super(propertyName);
+    }
+
+    @Override
+    public void handle(JSONObject message) {
+        if (pending.getAndSet(message) != null) {
+            conflated.incrementAndGet();
+        }
+        schedule();
+    }
+
+    /**
+     * Get the number of changes that have been replaced by a more recent one before being delivered
+     *
+     * @return The number of skipped changes
+     */
+    public long getConflatedCount() {
+        return conflated.get();
+    }
+
+    /**
+     * Submit the delivery task if there is a pending change and it's not already submitted
+     */
+    private void schedule() {
+        if (pending.get() == null || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            execute(delivery);
+        } catch (RuntimeException e) {
+            scheduled.set(false);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.macfja.mpv.communication.handling;
+
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abstract DebouncePropertyObserver class.
+ * Observer of a property changes, that only receive the last change once the property is stable.
+ * <p>
+ * A change is delivered when no other change arrived during the delay (a burst of changes is delivered as its last value).
+ *
+ * @author MacFJA
+ */
+abstract public class DebouncePropertyObserver extends RateLimitedPropertyObserver {
+    /**
+     * The time (in nanoseconds) without change before delivering
+     */
+    private final long delay;
+    /**
+     * The last change, waiting for the property to be stable
+     */
+    private JSONObject pending;
+    /**
+     * The time of the last change
+     */
+    private long lastChange;
+    /**
+     * Indicate if the timer is scheduled
+     */
+    private boolean timerScheduled = false;
+    /**
+     * The task that check if the property is stable
+     */
+    private final Runnable timer = new Runnable() {
+        @Override
+        public void run() {
+            onTimer();
+        }
+    };
+
+    /**
+     * Create a new debounce property observer for a property name and a group
+     *
+     * @param delay        The time (in milliseconds) without change before delivering
+     * @param propertyName The name of the property to observe
+     * @param id           The id of the group to be associated with
+     */
+    public DebouncePropertyObserver(long delay, String propertyName, Integer id) {
+        super(propertyName, id);
+        this.delay = TimeUnit.MILLISECONDS.toNanos(delay);
+    }
+
+    /**
+     * Create a new debounce property observer (with the default group of the property)
+     *
+     * @param delay        The time (in milliseconds) without change before delivering
+     * @param propertyName The name of the property to observe
+     */
+    public DebouncePropertyObserver(long delay, String propertyName) {
+        super(propertyName);
+        this.delay = TimeUnit.MILLISECONDS.toNanos(delay);
+    }
+
+    @Override
+    protected synchronized void received(JSONObject message) {
+        pending = message;
+        lastChange = System.nanoTime();
+        // The timer is not rescheduled on each change, it's postponed when it fires too early
+        if (!timerScheduled) {
+            timerScheduled = true;
+            schedule(timer, delay);
+        }
+    }
+
+    /**
+     * Deliver the pending change if the property is stable, or wait again
+     */
+    private void onTimer() {
+        JSONObject message;
+        synchronized (this) {
+            long remaining = lastChange + delay - System.nanoTime();
+            if (remaining > 0) {
+                schedule(timer, remaining);
+                return;
+            }
+            message = pending;
+            pending = null;
+            timerScheduled = false;
+        }
+        if (message != null) {
+            deliver(message);
+        }
+    }
+}
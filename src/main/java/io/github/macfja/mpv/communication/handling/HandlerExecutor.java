@@ -0,0 +1,219 @@
+package io.github.macfja.mpv.communication.handling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An executor for message handler workers, that keep count of submitted, queued, rejected and dropped tasks.
+ * <p>
+ * Available modes:
+ * <ul>
+ * <li>{@link #threadPerMessage()}: one new thread per handled message (the historical behavior)</li>
+ * <li>{@link #inline()}: the worker is run by the thread that read the message (for cheap handlers only:
+ * a worker that wait for a command response would block the thread that must read this response)</li>
+ * <li>{@link #bounded(int, int)}: a fixed size pool with a bounded queue</li>
+ * <li>{@link #shared()}: a bounded pool shared by every service of the JVM</li>
+ * </ul>
+ * When a bounded pool is saturated, the task is counted as rejected and run by a new thread,
+ * so no message is lost and the reader is never blocked by a worker.
+ * The tasks submitted once the pool is shut down are counted as dropped (and not run).
+ *
+ * @author MacFJA
+ */
+public class HandlerExecutor implements Executor {
+    /**
+     * The default size of a bounded pool queue
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    /**
+     * The pool shared between services
+     */
+    private static volatile HandlerExecutor sharedInstance;
+    /**
+     * The underlying pool ({@code null} for the thread per message and the inline modes)
+     */
+    private final ThreadPoolExecutor pool;
+    /**
+     * Indicate if workers are run by the calling thread
+     */
+    private final boolean runInline;
+    /**
+     * The number of submitted tasks
+     */
+    private final AtomicLong submitted = new AtomicLong();
+    /**
+     * The number of rejected tasks
+     */
+    private final AtomicLong rejected = new AtomicLong();
+    /**
+     * The number of tasks dropped because the pool is shut down
+     */
+    private final AtomicLong dropped = new AtomicLong();
+    /**
+     * The class logger
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Constructor.
+     *
+     * @param pool      The underlying pool
+     * @param runInline Indicate if workers are run by the calling thread
+     */
+    private HandlerExecutor(ThreadPoolExecutor pool, boolean runInline) {
+        this.pool = pool;
+        this.runInline = runInline;
+    }
+
+    /**
+     * Create an executor that start a new thread for every task
+     *
+     * @return The executor
+     */
+    public static HandlerExecutor threadPerMessage() {
+        return new HandlerExecutor(null, false);
+    }
+
+    /**
+     * Create an executor that run every task in the calling thread
+     *
+     * @return The executor
+     */
+    public static HandlerExecutor inline() {
+        return new HandlerExecutor(null, true);
+    }
+
+    /**
+     * Create an executor backed by a fixed size pool and a bounded queue
+     *
+     * @param threads   The number of threads of the pool
+     * @param queueSize The maximum number of waiting tasks
+     * @return The executor
+     */
+    public static HandlerExecutor bounded(int threads, int queueSize) {
+        final HandlerExecutor[] holder = new HandlerExecutor[1];
+        final ThreadFactory threadFactory = new DaemonThreadFactory();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize),
+                threadFactory,
+                new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+                        if (executor.isShutdown()) {
+                            holder[0].dropped.incrementAndGet();
+                            holder[0].logger.warn("Handler task dropped, the executor is shut down");
+                            return;
+                        }
+                        holder[0].rejected.incrementAndGet();
+                        // Not in the caller: it's the reader thread, a worker waiting for a response would block it
+                        threadFactory.newThread(task).start();
+                    }
+                }
+        );
+        pool.allowCoreThreadTimeOut(true);
+        holder[0] = new HandlerExecutor(pool, false);
+        return holder[0];
+    }
+
+    /**
+     * Get the executor shared between all services.
+     * Its pool has one thread per available processor.
+     *
+     * @return The shared executor
+     */
+    public static HandlerExecutor shared() {
+        if (sharedInstance == null) {
+            synchronized (HandlerExecutor.class) {
+                if (sharedInstance == null) {
+                    sharedInstance = bounded(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_SIZE);
+                }
+            }
+        }
+        return sharedInstance;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.incrementAndGet();
+        if (runInline) {
+            command.run();
+        } else if (pool == null) {
+            new Thread(command).start();
+        } else {
+            pool.execute(command);
+        }
+    }
+
+    /**
+     * Get the number of tasks submitted to this executor
+     *
+     * @return The number of tasks
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * Get the number of tasks currently waiting for a thread
+     *
+     * @return The number of tasks ({@code 0} if the executor doesn't queue tasks)
+     */
+    public int getQueuedCount() {
+        return pool == null ? 0 : pool.getQueue().size();
+    }
+
+    /**
+     * Get the number of tasks that have been rejected by a saturated pool (and run by a new thread)
+     *
+     * @return The number of tasks
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Get the number of tasks that have been dropped (not run) because the pool is shut down
+     *
+     * @return The number of tasks
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop the underlying pool (if any).
+     * Must not be called on the {@link #shared()} executor.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Thread factory of pool threads, that don't prevent the JVM to exit
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        /**
+         * The thread counter (for naming)
+         */
+        private static final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "mpv-handler-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
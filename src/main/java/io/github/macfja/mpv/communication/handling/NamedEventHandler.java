@@ -5,7 +5,7 @@ package io.github.macfja.mpv.communication.handling;
  *
  * @author MacFJA
  */
-abstract public class NamedEventHandler extends AbstractEventHandler {
+abstract public class NamedEventHandler extends AbstractEventHandler implements RoutableHandlerInterface {
     /**
      * The name of the event to handle
      */
@@ -24,4 +24,9 @@ abstract public class NamedEventHandler extends AbstractEventHandler {
     public boolean canHandle(String eventName) {
         return eventName.equals(this.eventName);
     }
+
+    @Override
+    public String getRoutingKey() {
+        return RoutingKey.forEvent(eventName);
+    }
 }
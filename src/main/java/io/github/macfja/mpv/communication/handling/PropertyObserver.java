@@ -2,13 +2,25 @@ package io.github.macfja.mpv.communication.handling;
 
 import com.alibaba.fastjson.JSONObject;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Abstract PropertyObserver class.
  * Observer of a property changes.
  *
  * @author MacFJA
  */
-public abstract class PropertyObserver extends AbstractMessageHandler implements MessageHandlerInterface {
+public abstract class PropertyObserver extends AbstractMessageHandler implements RoutableHandlerInterface {
+    /**
+     * The default group id of each property (by property name)
+     */
+    private static final ConcurrentMap<String, Integer> DEFAULT_IDS = new ConcurrentHashMap<>();
+    /**
+     * The last allocated default group id
+     */
+    private static final AtomicInteger LAST_DEFAULT_ID = new AtomicInteger();
     /**
      * The property observer change group.
      */
@@ -30,12 +42,34 @@ public abstract class PropertyObserver extends AbstractMessageHandler implements
     }
 
     /**
-     * Create a new property observer (group defaulted to 1)
+     * Create a new property observer.
+     * The group is the default one of the property (shared by all the observers of this property created without group)
      *
      * @param propertyName The name of the property to observe
+     * @see #getDefaultId(String)
      */
     public PropertyObserver(String propertyName) {
-        this(propertyName, propertyName.hashCode());
+        this(propertyName, getDefaultId(propertyName));
+    }
+
+    /**
+     * Get the default group id of a property.
+     * Each property have its own id (allocated on the first call, and then stable),
+     * in the negative range to not collide with user-defined groups.
+     *
+     * @param propertyName The name of the property
+     * @return The group id
+     */
+    public static int getDefaultId(String propertyName) {
+        Integer id = DEFAULT_IDS.get(propertyName);
+        if (id == null) {
+            Integer allocated = LAST_DEFAULT_ID.decrementAndGet();
+            id = DEFAULT_IDS.putIfAbsent(propertyName, allocated);
+            if (id == null) {
+                id = allocated;
+            }
+        }
+        return id;
     }
 
     /**
@@ -76,6 +110,11 @@ public abstract class PropertyObserver extends AbstractMessageHandler implements
 
     }
 
+    @Override
+    public String getRoutingKey() {
+        return RoutingKey.forProperty(propertyName, id);
+    }
+
     @Override
     public Runnable doHandle(final JSONObject message) {
         return new Runnable() {
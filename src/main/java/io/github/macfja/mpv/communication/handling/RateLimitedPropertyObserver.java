@@ -0,0 +1,168 @@
+package io.github.macfja.mpv.communication.handling;
+
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abstract RateLimitedPropertyObserver class.
+ * Base of the observers that shape the rate of the property changes (throttle, debounce, sample).
+ * <p>
+ * The timers are run by a scheduler shared by all the observers of a service
+ * (given by the service on registration), so the observers don't need their own thread.
+ * The times are measured with {@link System#nanoTime()}.
+ *
+ * @author MacFJA
+ * @see ThrottlePropertyObserver
+ * @see DebouncePropertyObserver
+ * @see SamplePropertyObserver
+ */
+abstract public class RateLimitedPropertyObserver extends PropertyObserver {
+    /**
+     * The scheduler used when the observer is not given one
+     */
+    private static volatile ScheduledExecutorService defaultScheduler;
+    /**
+     * The scheduler of the timers
+     */
+    private volatile ScheduledExecutorService scheduler;
+    /**
+     * The deliveries, in order, over the handler executor
+     */
+    private final Executor deliveries = new SerialExecutor(new Executor() {
+        @Override
+        public void execute(Runnable task) {
+            RateLimitedPropertyObserver.this.execute(task);
+        }
+    });
+
+    /**
+     * Create a new rate limited property observer for a property name and a group
+     *
+     * @param propertyName The name of the property to observe
+     * @param id           The id of the group to be associated with
+     */
+    public RateLimitedPropertyObserver(String propertyName, Integer id) {
+        super(propertyName, id);
+    }
+
+    /**
+     * Create a new rate limited property observer (with the default group of the property)
+     *
+     * @param propertyName The name of the property to observe
+     */
+    public RateLimitedPropertyObserver(String propertyName) {
+        super(propertyName);
+    }
+
+    /**
+     * Create a scheduler for rate limited observers: a single daemon thread, released when idle.
+     *
+     * @return The scheduler
+     */
+    public static ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "mpv-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.setKeepAliveTime(10, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Get the scheduler of the timers
+     *
+     * @return The scheduler, {@code null} if the default one is used
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Set the scheduler of the timers
+     *
+     * @param scheduler The scheduler (shared between observers)
+     */
+    public void setScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Run a task after a delay
+     *
+     * @param task  The task to run
+     * @param delay The delay in nanoseconds
+     * @return The scheduled task
+     */
+    protected ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return currentScheduler().schedule(task, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Run a task periodically
+     *
+     * @param task   The task to run
+     * @param period The period in nanoseconds
+     * @return The scheduled task
+     */
+    protected ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+        return currentScheduler().scheduleAtFixedRate(task, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Deliver a change to the observer (with the handler executor, in the delivery order)
+     *
+     * @param message The property change message
+     */
+    protected void deliver(final JSONObject message) {
+        deliveries.execute(new Runnable() {
+            @Override
+            public void run() {
+                changed(message.getString("name"), message.get("data"), message.getInteger("id"));
+            }
+        });
+    }
+
+    @Override
+    public void handle(JSONObject message) {
+        received(message);
+    }
+
+    /**
+     * Receive a property change, to deliver now, later or never
+     *
+     * @param message The property change message
+     */
+    abstract protected void received(JSONObject message);
+
+    /**
+     * Get the scheduler to use
+     *
+     * @return The scheduler
+     */
+    private ScheduledExecutorService currentScheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null) {
+            return current;
+        }
+        if (defaultScheduler == null) {
+            synchronized (RateLimitedPropertyObserver.class) {
+                if (defaultScheduler == null) {
+                    defaultScheduler = createScheduler();
+                }
+            }
+        }
+        return defaultScheduler;
+    }
+}
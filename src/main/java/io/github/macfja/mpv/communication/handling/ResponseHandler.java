@@ -8,7 +8,7 @@ import com.alibaba.fastjson.JSONObject;
  *
  * @author MacFJA
  */
-public abstract class ResponseHandler extends AbstractMessageHandler {
+public abstract class ResponseHandler extends AbstractMessageHandler implements RoutableHandlerInterface {
     @Override
     public boolean canHandle(JSONObject message) {
         if (!message.containsKey("request_id")) {
@@ -17,6 +17,11 @@ public abstract class ResponseHandler extends AbstractMessageHandler {
         return canHandle(message.getInteger("request_id"));
     }
 
+    @Override
+    public String getRoutingKey() {
+        return RoutingKey.RESPONSE;
+    }
+
     /**
      * Indicate if the provided requestId is handled by this handler
      *
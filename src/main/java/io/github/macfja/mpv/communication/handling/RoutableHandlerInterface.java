@@ -0,0 +1,18 @@
+package io.github.macfja.mpv.communication.handling;
+
+/**
+ * Interface of a message handler that declare the kind of message it handle.
+ * Such handlers are indexed by their routing key, so they are only tested against the messages with the same key.
+ *
+ * @author MacFJA
+ * @see RoutingKey
+ */
+public interface RoutableHandlerInterface extends MessageHandlerInterface {
+    /**
+     * Get the key of the messages that can be handled.
+     * The key must not change once the handler is registered.
+     *
+     * @return The routing key, or {@code null} if the handler must be tested against every message
+     */
+    String getRoutingKey();
+}
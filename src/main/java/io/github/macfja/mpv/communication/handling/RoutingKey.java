@@ -0,0 +1,87 @@
+package io.github.macfja.mpv.communication.handling;
+
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * Build the routing keys of the messages and of the handlers.
+ *
+ * @author MacFJA
+ * @see RoutableHandlerInterface
+ */
+public final class RoutingKey {
+    /**
+     * The key of all command responses
+     */
+    public static final String RESPONSE = "response";
+    /**
+     * The name of the property change event
+     */
+    private static final String PROPERTY_CHANGE = "property-change";
+
+    /**
+     * Utility class
+     */
+    private RoutingKey() {
+    }
+
+    /**
+     * Get the key of an event
+     *
+     * @param eventName The name of the event
+     * @return The key
+     */
+    public static String forEvent(String eventName) {
+        return "event:" + eventName;
+    }
+
+    /**
+     * Get the key of a property change
+     *
+     * @param propertyName The name of the property
+     * @param id           The id of the observation
+     * @return The key
+     */
+    public static String forProperty(String propertyName, int id) {
+        return "property:" + id + ":" + propertyName;
+    }
+
+    /**
+     * Get all keys of a message.
+     * A property change have two keys: the event one, and the property one.
+     *
+     * @param message The message
+     * @return The list of keys (can be empty)
+     */
+    public static String[] of(JSONObject message) {
+        Object event = message.get("event");
+        return of(
+                event == null ? null : event.toString(),
+                message.getString("name"),
+                message.getIntValue("id"),
+                message.containsKey("request_id")
+        );
+    }
+
+    /**
+     * Get all keys of a message, from its routing fields.
+     *
+     * @param event        The event name ({@code null} if the message is not an event)
+     * @param name         The property name (only used by property change events)
+     * @param id           The observation id (only used by property change events)
+     * @param hasRequestId Indicate if the message have a request id
+     * @return The list of keys (can be empty)
+     * @see #of(JSONObject)
+     */
+    public static String[] of(String event, String name, int id, boolean hasRequestId) {
+        if (event != null) {
+            if (PROPERTY_CHANGE.equals(event)) {
+                return new String[]{forEvent(PROPERTY_CHANGE), forProperty(name, id)};
+            }
+            return new String[]{forEvent(event)};
+        }
+        if (hasRequestId) {
+            return new String[]{RESPONSE};
+        }
+        return new String[0];
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.macfja.mpv.communication.handling;
+
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abstract SamplePropertyObserver class.
+ * Observer of a property changes, that receive the last change at a fixed rate.
+ * <p>
+ * On each period, the most recent change (if any since the previous period) is delivered.
+ * The periodic task is stopped when the property stop changing, and restarted on the next change.
+ *
+ * @author MacFJA
+ */
+abstract public class SamplePropertyObserver extends RateLimitedPropertyObserver {
+    /**
+     * The sampling period (in nanoseconds)
+     */
+    private final long period;
+    /**
+     * The most recent change not yet delivered
+     */
+    private JSONObject pending;
+    /**
+     * The periodic task ({@code null} when stopped)
+     */
+    private ScheduledFuture<?> sampling;
+    /**
+     * The task run on each period
+     */
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            onTick();
+        }
+    };
+
+    /**
+     * Create a new sample property observer for a property name and a group
+     *
+     * @param period       The sampling period (in milliseconds)
+     * @param propertyName The name of the property to observe
+     * @param id           The id of the group to be associated with
+     */
+    public SamplePropertyObserver(long period, String propertyName, Integer id) {
+        super(propertyName, id);
+        this.period = TimeUnit.MILLISECONDS.toNanos(period);
+    }
+
+    /**
+     * Create a new sample property observer (with the default group of the property)
+     *
+     * @param period       The sampling period (in milliseconds)
+     * @param propertyName The name of the property to observe
+     */
+    public SamplePropertyObserver(long period, String propertyName) {
+        super(propertyName);
+        this.period = TimeUnit.MILLISECONDS.toNanos(period);
+    }
+
+    @Override
+    protected synchronized void received(JSONObject message) {
+        pending = message;
+        if (sampling == null) {
+            sampling = scheduleAtFixedRate(tick, period);
+        }
+    }
+
+    /**
+     * Deliver the most recent change, or stop the sampling if there is none
+     */
+    private void onTick() {
+        JSONObject message;
+        synchronized (this) {
+            message = pending;
+            pending = null;
+            if (message == null) {
+                if (sampling != null) {
+                    sampling.cancel(false);
+                    sampling = null;
+                }
+                return;
+            }
+        }
+        deliver(message);
+    }
+}
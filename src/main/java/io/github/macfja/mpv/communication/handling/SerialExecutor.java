@@ -0,0 +1,85 @@
+package io.github.macfja.mpv.communication.handling;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An executor that run its tasks one at a time, in submission order, on a delegate executor.
+ * <p>
+ * No thread is dedicated: while tasks are pending, a single drain task is submitted to the delegate.
+ * Several serial executors can share the same pool, each one keeping its own order.
+ *
+ * @author MacFJA
+ */
+public class SerialExecutor implements Executor {
+    /**
+     * The executor that actually run the tasks
+     */
+    private final Executor delegate;
+    /**
+     * The pending tasks
+     */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    /**
+     * Indicate if a drain task is submitted (or running)
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    /**
+     * The task that run the pending tasks
+     */
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                scheduled.set(false);
+                schedule();
+            }
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param delegate The executor that actually run the tasks
+     */
+    public SerialExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        tasks.add(command);
+        schedule();
+    }
+
+    /**
+     * Get the executor that actually run the tasks
+     *
+     * @return The delegate executor
+     */
+    public Executor getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Submit the drain task if there are pending tasks and it's not already submitted
+     */
+    private void schedule() {
+        if (tasks.isEmpty() || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            delegate.execute(drain);
+        } catch (RuntimeException e) {
+            scheduled.set(false);
+            throw e;
+        }
+    }
+}
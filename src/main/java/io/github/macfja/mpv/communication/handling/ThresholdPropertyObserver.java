@@ -2,11 +2,14 @@ package io.github.macfja.mpv.communication.handling;
 
 import com.alibaba.fastjson.JSONObject;
 
-import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Abstract ThresholdPropertyObserver class.
  * Observer of a property changes, only if the change don't occurs outside a given frequency.
+ * <p>
+ * The changes received during the interval are dropped (including the last one),
+ * see {@link ThrottlePropertyObserver} to also receive the final value.
  *
  * @author MacFJA
  */
@@ -16,9 +19,9 @@ abstract public class ThresholdPropertyObserver extends PropertyObserver {
      */
     private final Float seconds;
     /**
-     * Last valid notification time
+     * Last valid notification time (from {@link System#nanoTime()}, {@code null} if never notified)
      */
-    private Long lastExecutionTime;
+    private final AtomicReference<Long> lastExecutionTime = new AtomicReference<>();
 
     /**
      * Constructor
@@ -57,14 +60,26 @@ abstract public class ThresholdPropertyObserver extends PropertyObserver {
      *         or if the observer was never call</p>
      */
     private boolean inSchedule() {
-        return lastExecutionTime == null
-                || (new Date()).getTime() - lastExecutionTime > seconds * 1000;
+        return inSchedule(lastExecutionTime.get(), System.nanoTime());
+    }
+
+    /**
+     * Indicate if the minimum time between two notification is respected.
+     *
+     * @param last The last valid notification time ({@code null} if never notified)
+     * @param now  The current time
+     * @return {@code true} if the notification is allowed
+     */
+    private boolean inSchedule(Long last, long now) {
+        return last == null || now - last > seconds * 1000000000L;
     }
 
     @Override
     public void handle(JSONObject message) {
-        if (inSchedule()) {
-            lastExecutionTime = (new Date()).getTime();
+        Long last = lastExecutionTime.get();
+        long now = System.nanoTime();
+        // Only one of concurrent changes can claim the notification
+        if (inSchedule(last, now) && lastExecutionTime.compareAndSet(last, now)) {
             super.handle(message);
         }
     }
@@ -0,0 +1,142 @@
+package io.github.macfja.mpv.communication.handling;
+
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abstract ThrottlePropertyObserver class.
+ * Observer of a property changes, that receive at most one change per interval.
+ * <p>
+ * With the leading edge, the first change of a burst is delivered immediately.
+ * With the trailing edge, the last change of a burst is delivered at the end of the interval,
+ * so the final value of the property is never lost.
+ *
+ * @author MacFJA
+ */
+abstract public class ThrottlePropertyObserver extends RateLimitedPropertyObserver {
+    /**
+     * The minimum time (in nanoseconds) between two deliveries
+     */
+    private final long interval;
+    /**
+     * Indicate if the first change of a burst is delivered immediately
+     */
+    private final boolean leading;
+    /**
+     * Indicate if the last change of a burst is delivered at the end of the interval
+     */
+    private final boolean trailing;
+    /**
+     * The time of the last delivery
+     */
+    private long lastDelivery;
+    /**
+     * Indicate if a change was already delivered
+     */
+    private boolean delivered = false;
+    /**
+     * The change waiting for the end of the interval
+     */
+    private JSONObject pending;
+    /**
+     * Indicate if the end of the interval is scheduled
+     */
+    private boolean timerScheduled = false;
+    /**
+     * The task run at the end of the interval
+     */
+    private final Runnable timer = new Runnable() {
+        @Override
+        public void run() {
+            onTimer();
+        }
+    };
+
+    /**
+     * Create a new throttle property observer for a property name and a group
+     *
+     * @param interval     The minimum time (in milliseconds) between two deliveries
+     * @param leading      {@code true} to deliver the first change of a burst immediately
+     * @param trailing     {@code true} to deliver the last change of a burst at the end of the interval
+     * @param propertyName The name of the property to observe
+     * @param id           The id of the group to be associated with
+     */
+    public ThrottlePropertyObserver(long interval, boolean leading, boolean trailing, String propertyName, Integer id) {
+        super(propertyName, id);
+        if (!leading && !trailing) {
+            throw new IllegalArgumentException("At least one of leading or trailing edge must be enabled");
+        }
+        this.interval = TimeUnit.MILLISECONDS.toNanos(interval);
+        this.leading = leading;
+        this.trailing = trailing;
+    }
+
+    /**
+     * Create a new throttle property observer (with the default group of the property)
+     *
+     * @param interval     The minimum time (in milliseconds) between two deliveries
+     * @param leading      {@code true} to deliver the first change of a burst immediately
+     * @param trailing     {@code true} to deliver the last change of a burst at the end of the interval
+     * @param propertyName The name of the property to observe
+     */
+    public ThrottlePropertyObserver(long interval, boolean leading, boolean trailing, String propertyName) {
+        this(interval, leading, trailing, propertyName, getDefaultId(propertyName));
+    }
+
+    /**
+     * Create a new throttle property observer, with leading and trailing edges (and the default group of the property)
+     *
+     * @param interval     The minimum time (in milliseconds) between two deliveries
+     * @param propertyName The name of the property to observe
+     */
+    public ThrottlePropertyObserver(long interval, String propertyName) {
+        this(interval, true, true, propertyName);
+    }
+
+    @Override
+    protected void received(JSONObject message) {
+        JSONObject now = null;
+        synchronized (this) {
+            long time = System.nanoTime();
+            if (!timerScheduled && leading && (!delivered || time - lastDelivery >= interval)) {
+                delivered = true;
+                lastDelivery = time;
+                now = message;
+                if (trailing) {
+                    // Open the interval, the changes received during it are delivered at its end
+                    timerScheduled = true;
+                    schedule(timer, interval);
+                }
+            } else if (trailing) {
+                pending = message;
+                if (!timerScheduled) {
+                    timerScheduled = true;
+                    schedule(timer, delivered ? Math.max(0, lastDelivery + interval - time) : interval);
+                }
+            }
+        }
+        if (now != null) {
+            deliver(now);
+        }
+    }
+
+    /**
+     * The end of the interval: deliver the pending change (and open a new interval)
+     */
+    private void onTimer() {
+        JSONObject message;
+        synchronized (this) {
+            message = pending;
+            pending = null;
+            if (message == null) {
+                timerScheduled = false;
+                return;
+            }
+            delivered = true;
+            lastDelivery = System.nanoTime();
+            schedule(timer, interval);
+        }
+        deliver(message);
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.macfja.mpv.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations (in nanoseconds).
+ * <p>
+ * The values are counted in log-linear buckets (8 buckets per power of two),
+ * so the percentiles are precise to 12.5%, with a fixed memory whatever the number of values.
+ *
+ * @author MacFJA
+ */
+public final class Histogram {
+    /**
+     * The number of linear buckets per power of two (as a power of two)
+     */
+    private static final int SUB_BITS = 3;
+    /**
+     * The number of linear buckets per power of two
+     */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    /**
+     * The number of values in each bucket
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray((64 - SUB_BITS) * SUB_COUNT);
+    /**
+     * The number of values
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * The sum of the values
+     */
+    private final LongAdder sum = new LongAdder();
+    /**
+     * The greatest value
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Add a value
+     *
+     * @param value The value (negative values are counted as 0)
+     */
+    public void record(long value) {
+        long positive = Math.max(0, value);
+        buckets.incrementAndGet(indexOf(positive));
+        count.increment();
+        sum.add(positive);
+        long current;
+        while (positive > (current = max.get()) && !max.compareAndSet(current, positive)) {
+            // Retry, an other thread updated the max
+        }
+    }
+
+    /**
+     * Get the number of values
+     *
+     * @return The number of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the average of the values
+     *
+     * @return The mean ({@code 0} if there is no value)
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * Get the greatest value
+     *
+     * @return The max ({@code 0} if there is no value)
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the value under which a given ratio of the values are
+     *
+     * @param quantile The ratio (between 0 and 1, like {@code 0.99} for the 99th percentile)
+     * @return The (approximated) value ({@code 0} if there is no value)
+     */
+    public long getPercentile(double quantile) {
+        long total = 0;
+        long[] counts = new long[buckets.length()];
+        for (int index = 0; index < counts.length; index++) {
+            counts[index] = buckets.get(index);
+            total += counts[index];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(index), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Get the bucket of a value
+     *
+     * @param value The (positive) value
+     * @return The bucket index
+     */
+    static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1));
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * Get the greatest value of a bucket
+     *
+     * @param index The bucket index
+     * @return The upper bound of the bucket
+     */
+    static long upperBoundOf(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_COUNT + SUB_BITS - 1;
+        long sub = index % SUB_COUNT;
+        long width = 1L << (exponent - SUB_BITS);
+        return ((SUB_COUNT + sub) << (exponent - SUB_BITS)) + width - 1;
+    }
+}
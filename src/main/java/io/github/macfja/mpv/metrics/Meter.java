@@ -0,0 +1,80 @@
+package io.github.macfja.mpv.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter that also give its rate (the number of occurrences during the last complete second).
+ *
+ * @author MacFJA
+ */
+public final class Meter {
+    /**
+     * The total number of occurrences
+     */
+    private final LongAdder total = new LongAdder();
+    /**
+     * The number of occurrences in the current second
+     */
+    private final LongAdder current = new LongAdder();
+    /**
+     * The current second (from {@link System#nanoTime()})
+     */
+    private final AtomicLong second = new AtomicLong(currentSecond());
+    /**
+     * The number of occurrences during the previous second
+     */
+    private volatile long previous = 0;
+
+    /**
+     * Count an occurrence
+     */
+    public void mark() {
+        roll(currentSecond());
+        total.increment();
+        current.increment();
+    }
+
+    /**
+     * Get the total number of occurrences
+     *
+     * @return The count
+     */
+    public long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * Get the number of occurrences during the last complete second
+     *
+     * @return The rate (per second)
+     */
+    public long getRate() {
+        roll(currentSecond());
+        return previous;
+    }
+
+    /**
+     * Start a new second if the current one is over
+     *
+     * @param now The current second
+     */
+    private void roll(long now) {
+        long last = second.get();
+        if (now != last && second.compareAndSet(last, now)) {
+            // Approximated: an occurrence counted during the roll can go to the next second
+            long count = current.sumThenReset();
+            previous = now == last + 1 ? count : 0;
+        }
+    }
+
+    /**
+     * Get the current second
+     *
+     * @return The number of seconds from an arbitrary origin
+     */
+    private static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.macfja.mpv.metrics;
+
+/**
+ * The names of the measures of the library.
+ *
+ * @author MacFJA
+ */
+public final class MetricNames {
+    /**
+     * Counter: the commands sent to MPV
+     */
+    public static final String COMMANDS_SENT = "commands.sent";
+    /**
+     * Counter: the commands without response in time
+     */
+    public static final String COMMANDS_TIMEOUT = "commands.timeout";
+    /**
+     * Timer prefix: the round-trip time of the commands (followed by the command name)
+     */
+    public static final String COMMAND_LATENCY = "commands.latency.";
+    /**
+     * Gauge: the commands waiting for their response
+     */
+    public static final String REQUESTS_IN_FLIGHT = "requests.in-flight";
+    /**
+     * Counter: the lines received from MPV
+     */
+    public static final String LINES_RECEIVED = "lines.received";
+    /**
+     * Timer: the time to parse a received line
+     */
+    public static final String LINE_PARSE = "lines.parse";
+    /**
+     * Timer prefix: the time spent by the reader thread in a handler (followed by the handler class name)
+     */
+    public static final String HANDLER_DISPATCH = "handlers.dispatch.";
+    /**
+     * Gauge: the handler tasks waiting in the handler executor queue
+     */
+    public static final String HANDLERS_QUEUED = "handlers.queued";
+    /**
+     * Gauge: the handler tasks rejected by the handler executor (run by a new thread)
+     */
+    public static final String HANDLERS_REJECTED = "handlers.rejected";
+
+    /**
+     * Private constructor, only constants
+     */
+    private MetricNames() {
+    }
+}
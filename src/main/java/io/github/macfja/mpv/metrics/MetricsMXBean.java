@@ -0,0 +1,45 @@
+package io.github.macfja.mpv.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of a {@link SimpleMetricsRegistry}.
+ * The durations are in microseconds.
+ *
+ * @author MacFJA
+ */
+public interface MetricsMXBean {
+    /**
+     * Get the total of each counter
+     *
+     * @return The counters (by name)
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Get the rate (per second, during the last complete second) of each counter
+     *
+     * @return The rates (by counter name)
+     */
+    Map<String, Long> getRates();
+
+    /**
+     * Get the current value of each gauge
+     *
+     * @return The gauges (by name)
+     */
+    Map<String, Long> getGauges();
+
+    /**
+     * Get the statistics of each timer: count, mean, p50, p90, p99 and max
+     * (by timer name followed by the statistic, like {@code lines.parse.p99})
+     *
+     * @return The timers statistics
+     */
+    Map<String, Double> getTimers();
+
+    /**
+     * Forget all the counted values (the gauges are kept)
+     */
+    void reset();
+}
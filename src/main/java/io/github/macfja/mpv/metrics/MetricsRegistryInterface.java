@@ -0,0 +1,44 @@
+package io.github.macfja.mpv.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The registry that receive the measures of the library (see {@link MetricNames} for the measured values).
+ * <p>
+ * Implement it to send the measures to a monitoring system,
+ * or use {@link SimpleMetricsRegistry} (that can be exposed with JMX).
+ *
+ * @author MacFJA
+ */
+public interface MetricsRegistryInterface {
+    /**
+     * Indicate if the registry record something.
+     * When {@code false}, the library skip the measures (like the time measurements).
+     *
+     * @return {@code true} if the measures are recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * Count an occurrence
+     *
+     * @param name The name of the counter
+     */
+    void increment(String name);
+
+    /**
+     * Record a duration (in a histogram)
+     *
+     * @param name     The name of the timer
+     * @param duration The duration in nanoseconds
+     */
+    void record(String name, long duration);
+
+    /**
+     * Register a value read on demand
+     *
+     * @param name  The name of the gauge
+     * @param value The provider of the current value
+     */
+    void gauge(String name, LongSupplier value);
+}
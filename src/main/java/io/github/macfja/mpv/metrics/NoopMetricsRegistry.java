@@ -0,0 +1,38 @@
+package io.github.macfja.mpv.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A registry that record nothing (the default one).
+ *
+ * @author MacFJA
+ */
+public final class NoopMetricsRegistry implements MetricsRegistryInterface {
+    /**
+     * The single instance
+     */
+    public static final NoopMetricsRegistry INSTANCE = new NoopMetricsRegistry();
+
+    /**
+     * Private constructor, use {@link #INSTANCE}
+     */
+    private NoopMetricsRegistry() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void increment(String name) {
+    }
+
+    @Override
+    public void record(String name, long duration) {
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value) {
+    }
+}
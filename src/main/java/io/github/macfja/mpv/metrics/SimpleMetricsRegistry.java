@@ -0,0 +1,197 @@
+package io.github.macfja.mpv.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * An in-memory metrics registry, with counters (and their rate), gauges and latency histograms.
+ * It can be exposed with JMX with {@link #registerMBean(String)}.
+ *
+ * @author MacFJA
+ */
+public class SimpleMetricsRegistry implements MetricsRegistryInterface, MetricsMXBean {
+    /**
+     * The JMX domain of the registries
+     */
+    public static final String JMX_DOMAIN = "io.github.macfja.mpv";
+    /**
+     * The counters (by name)
+     */
+    private final ConcurrentMap<String, Meter> counters = new ConcurrentHashMap<>();
+    /**
+     * The timers (by name)
+     */
+    private final ConcurrentMap<String, Histogram> timers = new ConcurrentHashMap<>();
+    /**
+     * The gauges (by name)
+     */
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    /**
+     * The JMX name of the registry ({@code null} if not registered)
+     */
+    private volatile ObjectName objectName;
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void increment(String name) {
+        getMeter(name).mark();
+    }
+
+    @Override
+    public void record(String name, long duration) {
+        getHistogram(name).record(duration);
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Get (or create) a counter
+     *
+     * @param name The name of the counter
+     * @return The counter
+     */
+    public Meter getMeter(String name) {
+        Meter meter = counters.get(name);
+        if (meter == null) {
+            Meter created = new Meter();
+            meter = counters.putIfAbsent(name, created);
+            if (meter == null) {
+                meter = created;
+            }
+        }
+        return meter;
+    }
+
+    /**
+     * Get (or create) a timer
+     *
+     * @param name The name of the timer
+     * @return The histogram of the durations (in nanoseconds)
+     */
+    public Histogram getHistogram(String name) {
+        Histogram histogram = timers.get(name);
+        if (histogram == null) {
+            Histogram created = new Histogram();
+            histogram = timers.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Get the current value of a gauge
+     *
+     * @param name The name of the gauge
+     * @return The value ({@code 0} if the gauge doesn't exist)
+     */
+    public long getGauge(String name) {
+        LongSupplier gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.getAsLong();
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, Meter> entry : counters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getCount());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getRates() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, Meter> entry : counters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getRate());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongSupplier> entry : gauges.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getAsLong());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getTimers() {
+        Map<String, Double> result = new TreeMap<>();
+        for (Map.Entry<String, Histogram> entry : timers.entrySet()) {
+            String name = entry.getKey();
+            Histogram histogram = entry.getValue();
+            result.put(name + ".count", (double) histogram.getCount());
+            result.put(name + ".mean", toMicros(histogram.getMean()));
+            result.put(name + ".p50", toMicros(histogram.getPercentile(0.5)));
+            result.put(name + ".p90", toMicros(histogram.getPercentile(0.9)));
+            result.put(name + ".p99", toMicros(histogram.getPercentile(0.99)));
+            result.put(name + ".max", toMicros(histogram.getMax()));
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        counters.clear();
+        timers.clear();
+    }
+
+    /**
+     * Expose the registry with JMX (in the platform MBean server),
+     * as {@code io.github.macfja.mpv:type=Metrics,name=<name>}
+     *
+     * @param name The name of the registry (like the player name)
+     * @throws JMException If the registration failed (like a name already used)
+     */
+    public void registerMBean(String name) throws JMException {
+        ObjectName newName = new ObjectName(JMX_DOMAIN + ":type=Metrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, newName);
+        objectName = newName;
+    }
+
+    /**
+     * Remove the registry from JMX (if it was registered)
+     *
+     * @throws JMException If the removal failed
+     */
+    public void unregisterMBean() throws JMException {
+        ObjectName current = objectName;
+        if (current == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(current)) {
+            server.unregisterMBean(current);
+        }
+        objectName = null;
+    }
+
+    /**
+     * Convert nanoseconds to microseconds
+     *
+     * @param nanos The duration in nanoseconds
+     * @return The duration in microseconds
+     */
+    private static double toMicros(double nanos) {
+        return nanos / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+}
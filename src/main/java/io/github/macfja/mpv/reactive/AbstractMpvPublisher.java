@@ -0,0 +1,79 @@
+package io.github.macfja.mpv.reactive;
+
+import io.github.macfja.mpv.MpvService;
+import io.github.macfja.mpv.communication.handling.HandlerExecutor;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/**
+ * An abstract/base implementation of a publisher of MPV messages.
+ * Each subscriber get its own {@link BufferedSubscription}, fed by a message handler registered on the service
+ * while the subscription is active.
+ *
+ * @param <T> The type of the published items
+ * @author MacFJA
+ */
+public abstract class AbstractMpvPublisher<T> implements PublisherInterface<T> {
+    /**
+     * The default number of items buffered for each subscriber
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+    /**
+     * The service that receive the messages
+     */
+    protected final MpvService service;
+    /**
+     * The number of items buffered for each subscriber
+     */
+    private final int bufferSize;
+    /**
+     * The executor that send the items to the subscribers
+     */
+    private final Executor executor;
+
+    /**
+     * Constructor
+     *
+     * @param service    The service that receive the messages
+     * @param bufferSize The number of items buffered for each subscriber (the oldest are dropped)
+     * @param executor   The executor that send the items to the subscribers
+     */
+    public AbstractMpvPublisher(MpvService service, int bufferSize, Executor executor) {
+        this.service = service;
+        this.bufferSize = bufferSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Constructor, with the default buffer size and the {@link HandlerExecutor#shared() shared executor}
+     *
+     * @param service The service that receive the messages
+     */
+    public AbstractMpvPublisher(MpvService service) {
+        this(service, DEFAULT_BUFFER_SIZE, HandlerExecutor.shared());
+    }
+
+    @Override
+    public void subscribe(SubscriberInterface<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("The subscriber can't be null (rule 1.9)");
+        }
+        BufferedSubscription<T> subscription = new BufferedSubscription<>(subscriber, bufferSize, executor);
+        subscription.start();
+        try {
+            attach(subscription);
+        } catch (IOException e) {
+            subscription.fail(e);
+        }
+    }
+
+    /**
+     * Register the message handler that feed a subscription
+     * (and set its {@link BufferedSubscription#setOnCancel(Runnable) unregistering}).
+     *
+     * @param subscription The subscription to feed
+     * @throws IOException If the handler can't be registered
+     */
+    abstract protected void attach(BufferedSubscription<T> subscription) throws IOException;
+}
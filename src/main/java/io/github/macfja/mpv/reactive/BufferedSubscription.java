@@ -0,0 +1,249 @@
+package io.github.macfja.mpv.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A subscription that buffer the items until the subscriber request them.
+ * <p>
+ * The buffer is bounded: when it's full, the oldest item is dropped (a slow subscriber get the most recent items,
+ * with a constant memory). The items are sent by an executor, one task at a time, so the subscriber methods are never
+ * called concurrently, and never by the thread that read MPV messages.
+ *
+ * @param <T> The type of the items
+ * @author MacFJA
+ */
+public final class BufferedSubscription<T> implements SubscriptionInterface {
+    /**
+     * The subscriber
+     */
+    private final SubscriberInterface<? super T> subscriber;
+    /**
+     * The items not yet sent
+     */
+    private final Deque<T> buffer = new ArrayDeque<>();
+    /**
+     * The maximum number of items in the buffer
+     */
+    private final int capacity;
+    /**
+     * The executor that send the items
+     */
+    private final Executor executor;
+    /**
+     * The number of items requested and not yet sent
+     */
+    private final AtomicLong requested = new AtomicLong();
+    /**
+     * The number of pending drain requests (the drain task is running if not 0)
+     */
+    private final AtomicInteger work = new AtomicInteger(1);
+    /**
+     * Indicate if the subscription is cancelled (or terminated)
+     */
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    /**
+     * The number of items dropped because the buffer was full
+     */
+    private final AtomicLong dropped = new AtomicLong();
+    /**
+     * The error to send to the subscriber ({@code null} if none)
+     */
+    private volatile Throwable error;
+    /**
+     * The action to run on cancel ({@code null} if none)
+     */
+    private Runnable onCancel;
+    /**
+     * The task that send the items
+     */
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drainLoop();
+        }
+    };
+    /**
+     * The class logger
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Constructor
+     *
+     * @param subscriber The subscriber
+     * @param capacity   The maximum number of items in the buffer
+     * @param executor   The executor that send the items
+     */
+    public BufferedSubscription(SubscriberInterface<? super T> subscriber, int capacity, Executor executor) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The buffer capacity must be at least 1");
+        }
+        this.subscriber = subscriber;
+        this.capacity = capacity;
+        this.executor = executor;
+    }
+
+    /**
+     * Give the subscription to the subscriber.
+     * Must be called once, before any item is offered.
+     */
+    public void start() {
+        try {
+            subscriber.onSubscribe(this);
+        } finally {
+            // The requests made during onSubscribe are only served now, to not call onNext concurrently
+            work.set(0);
+            schedule();
+        }
+    }
+
+    /**
+     * Add an item to send (the oldest one is dropped if the buffer is full)
+     *
+     * @param item The item
+     */
+    public void offer(T item) {
+        if (cancelled.get()) {
+            return;
+        }
+        synchronized (buffer) {
+            if (buffer.size() >= capacity) {
+                buffer.pollFirst();
+                dropped.incrementAndGet();
+            }
+            buffer.addLast(item);
+        }
+        schedule();
+    }
+
+    /**
+     * End the subscription with an error
+     *
+     * @param throwable The error to send to the subscriber
+     */
+    public void fail(Throwable throwable) {
+        error = throwable;
+        schedule();
+    }
+
+    /**
+     * Set the action to run when the subscription is cancelled (run immediately if already cancelled)
+     *
+     * @param action The action (like unregistering the handler that offer the items)
+     */
+    public void setOnCancel(Runnable action) {
+        synchronized (this) {
+            if (!cancelled.get()) {
+                onCancel = action;
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Get the number of items dropped because the subscriber was too slow
+     *
+     * @return The number of dropped items
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Indicate if the subscription is cancelled (or terminated)
+     *
+     * @return {@code true} if no more items will be sent
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            fail(new IllegalArgumentException("The number of requested items must be positive (rule 3.9), got " + n));
+            return;
+        }
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!requested.compareAndSet(current, next));
+        schedule();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled.compareAndSet(false, true)) {
+            return;
+        }
+        Runnable action;
+        synchronized (this) {
+            action = onCancel;
+            onCancel = null;
+        }
+        synchronized (buffer) {
+            buffer.clear();
+        }
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * Request the drain task to run (or run again)
+     */
+    private void schedule() {
+        if (work.getAndIncrement() == 0) {
+            executor.execute(drain);
+        }
+    }
+
+    /**
+     * Send the buffered items, as long as there are requested ones
+     */
+    private void drainLoop() {
+        int missed = 1;
+        do {
+            while (!cancelled.get()) {
+                Throwable failure = error;
+                if (failure != null) {
+                    cancel();
+                    subscriber.onError(failure);
+                    break;
+                }
+                if (requested.get() == 0) {
+                    break;
+                }
+                T item;
+                synchronized (buffer) {
+                    item = buffer.pollFirst();
+                }
+                if (item == null) {
+                    break;
+                }
+                if (requested.get() != Long.MAX_VALUE) {
+                    requested.decrementAndGet();
+                }
+                try {
+                    subscriber.onNext(item);
+                } catch (RuntimeException e) {
+                    // A subscriber must not throw (rule 2.13), consider the subscription cancelled
+                    logger.warn("Subscriber failed, the subscription is cancelled", e);
+                    cancel();
+                }
+            }
+            missed = work.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
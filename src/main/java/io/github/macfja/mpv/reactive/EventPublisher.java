@@ -0,0 +1,67 @@
+package io.github.macfja.mpv.reactive;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.MpvService;
+import io.github.macfja.mpv.communication.handling.NamedEventHandler;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A publisher of the MPV events of a given name.
+ * The items are the event messages. The stream never complete, cancel the subscription to stop it.
+ *
+ * @author MacFJA
+ */
+public class EventPublisher extends AbstractMpvPublisher<JSONObject> {
+    /**
+     * The name of the published event
+     */
+    private final String eventName;
+
+    /**
+     * Constructor
+     *
+     * @param service    The service that receive the events
+     * @param eventName  The name of the event
+     * @param bufferSize The number of events buffered for each subscriber (the oldest are dropped)
+     * @param executor   The executor that send the events to the subscribers
+     */
+    public EventPublisher(MpvService service, String eventName, int bufferSize, Executor executor) {
+        super(service, bufferSize, executor);
+        this.eventName = eventName;
+    }
+
+    /**
+     * Constructor, with the default buffer size and executor
+     *
+     * @param service   The service that receive the events
+     * @param eventName The name of the event
+     */
+    public EventPublisher(MpvService service, String eventName) {
+        super(service);
+        this.eventName = eventName;
+    }
+
+    @Override
+    protected void attach(final BufferedSubscription<JSONObject> subscription) {
+        final NamedEventHandler handler = new NamedEventHandler(eventName) {
+            @Override
+            public void handle(JSONObject message) {
+                // Buffered, no worker needed
+                subscription.offer(message);
+            }
+
+            @Override
+            public Runnable doHandle(JSONObject message) {
+                return null;
+            }
+        };
+        service.registerEvent(handler);
+        subscription.setOnCancel(new Runnable() {
+            @Override
+            public void run() {
+                service.unregisterEvent(handler);
+            }
+        });
+    }
+}
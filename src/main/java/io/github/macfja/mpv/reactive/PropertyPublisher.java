@@ -0,0 +1,79 @@
+package io.github.macfja.mpv.reactive;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.MpvService;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/**
+ * A publisher of the values of an observed MPV property.
+ * The property is observed while there are subscribers (in the default group of the property).
+ * The stream never complete, cancel the subscription to stop it.
+ *
+ * @author MacFJA
+ */
+public class PropertyPublisher extends AbstractMpvPublisher<Object> {
+    /**
+     * The name of the published property
+     */
+    private final String propertyName;
+    /**
+     * The class logger
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Constructor
+     *
+     * @param service      The service that receive the property changes
+     * @param propertyName The name of the property
+     * @param bufferSize   The number of values buffered for each subscriber (the oldest are dropped)
+     * @param executor     The executor that send the values to the subscribers
+     */
+    public PropertyPublisher(MpvService service, String propertyName, int bufferSize, Executor executor) {
+        super(service, bufferSize, executor);
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * Constructor, with the default buffer size and executor
+     *
+     * @param service      The service that receive the property changes
+     * @param propertyName The name of the property
+     */
+    public PropertyPublisher(MpvService service, String propertyName) {
+        super(service);
+        this.propertyName = propertyName;
+    }
+
+    @Override
+    protected void attach(final BufferedSubscription<Object> subscription) throws IOException {
+        final PropertyObserver observer = new PropertyObserver(propertyName) {
+            @Override
+            public void handle(JSONObject message) {
+                // Buffered, no worker needed
+                subscription.offer(message.get("data"));
+            }
+
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+                subscription.offer(value);
+            }
+        };
+        service.registerPropertyChange(observer);
+        subscription.setOnCancel(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    service.unregisterPropertyChange(observer);
+                } catch (IOException e) {
+                    logger.warn("Unable to unobserve " + propertyName, e);
+                }
+            }
+        });
+    }
+}
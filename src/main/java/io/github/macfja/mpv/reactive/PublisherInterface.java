@@ -0,0 +1,20 @@
+package io.github.macfja.mpv.reactive;
+
+/**
+ * A provider of a potentially unbounded number of items, published according to the demand of its subscribers.
+ * <p>
+ * Same contract (and method names) as {@code org.reactivestreams.Publisher} and {@code java.util.concurrent.Flow.Publisher},
+ * so it can be adapted to them with a simple delegation.
+ *
+ * @param <T> The type of the published items
+ * @author MacFJA
+ */
+public interface PublisherInterface<T> {
+    /**
+     * Request the publisher to start streaming items to a subscriber.
+     * {@link SubscriberInterface#onSubscribe(SubscriptionInterface)} is called first, then the items are sent on demand.
+     *
+     * @param subscriber The subscriber that will receive the items
+     */
+    void subscribe(SubscriberInterface<? super T> subscriber);
+}
@@ -0,0 +1,39 @@
+package io.github.macfja.mpv.reactive;
+
+/**
+ * A receiver of the items of a {@link PublisherInterface}.
+ * <p>
+ * Same contract (and method names) as {@code org.reactivestreams.Subscriber} and {@code java.util.concurrent.Flow.Subscriber}.
+ * The methods are never called concurrently.
+ *
+ * @param <T> The type of the received items
+ * @author MacFJA
+ */
+public interface SubscriberInterface<T> {
+    /**
+     * Called once, before any other method.
+     * No item is received until {@link SubscriptionInterface#request(long)} is called.
+     *
+     * @param subscription The subscription, to request items or cancel
+     */
+    void onSubscribe(SubscriptionInterface subscription);
+
+    /**
+     * Receive the next item (never more than requested)
+     *
+     * @param item The item
+     */
+    void onNext(T item);
+
+    /**
+     * Called when the stream failed, no more method is called after it
+     *
+     * @param throwable The error
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Called when the stream ended, no more method is called after it
+     */
+    void onComplete();
+}
@@ -0,0 +1,22 @@
+package io.github.macfja.mpv.reactive;
+
+/**
+ * The link between a {@link PublisherInterface} and a {@link SubscriberInterface}.
+ * <p>
+ * Same contract (and method names) as {@code org.reactivestreams.Subscription} and {@code java.util.concurrent.Flow.Subscription}.
+ *
+ * @author MacFJA
+ */
+public interface SubscriptionInterface {
+    /**
+     * Add items to the demand of the subscriber
+     *
+     * @param n The number of items (strictly positive), {@link Long#MAX_VALUE} for an unbounded demand
+     */
+    void request(long n);
+
+    /**
+     * Stop receiving items (and release the resources of the subscription)
+     */
+    void cancel();
+}
@@ -1,6 +1,8 @@
 package io.github.macfja.mpv.wrapper;
 
 import io.github.macfja.mpv.Service;
+import io.github.macfja.mpv.communication.AbstractCommunication;
+import io.github.macfja.mpv.communication.CommunicationInterface;
 
 import java.io.IOException;
 
@@ -17,16 +19,26 @@ public class ExistingService extends Service {
      * @param socketPath The path to the socket where MPV communicate
      */
     public ExistingService(String socketPath) {
-        super();
+        this(socketPath, AbstractCommunication.createDefault());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param socketPath    The path to the socket where MPV communicate
+     * @param communication The communication (transport) to use to talk with MPV
+     */
+    public ExistingService(String socketPath, CommunicationInterface communication) {
+        super(null, socketPath, communication);
         // Don't quit the existing service.
         ioCommunication.setExitOnClose(false);
-        ioCommunication.setSocketPath(socketPath);
     }
 
     @Override
     protected void initialize() {
         try {
             ioCommunication.open();
+            isInitialized = true;
         } catch (IOException e) {
             logger.error("Unable to start communication", e);
         }
@@ -36,5 +48,6 @@ public class ExistingService extends Service {
     public void close() throws IOException {
         // Only close the communication part
         ioCommunication.close();
+        shutdownScheduler();
     }
 }
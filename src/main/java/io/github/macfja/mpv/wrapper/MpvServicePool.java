@@ -0,0 +1,321 @@
+package io.github.macfja.mpv.wrapper;
+
+import io.github.macfja.mpv.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of MPV instances.
+ * The instances are started in parallel (each one with its own socket), handed out with {@link #acquire()},
+ * given back with {@link #release(Service)}, and closed in parallel.
+ *
+ * @author MacFJA
+ */
+public class MpvServicePool implements Closeable {
+    /**
+     * The maximum number of instances started (or closed) at the same time
+     */
+    private static final int MAX_PARALLELISM = 16;
+    /**
+     * The number of instances of the pool
+     */
+    private final int size;
+    /**
+     * The factory of the instances
+     */
+    private final ServiceFactoryInterface factory;
+    /**
+     * All the instances of the pool
+     */
+    private final List<Service> services = new CopyOnWriteArrayList<>();
+    /**
+     * The instances not handed out
+     */
+    private final BlockingQueue<Service> idle = new LinkedBlockingQueue<>();
+    /**
+     * The instances handed out (removed when given back)
+     */
+    private final Set<Service> handedOut = Collections.newSetFromMap(new ConcurrentHashMap<Service, Boolean>());
+    /**
+     * Indicate if the pool is closed
+     */
+    private volatile boolean closed = false;
+    /**
+     * The class logger
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Constructor
+     *
+     * @param size    The number of instances
+     * @param mpvPath The path to the MPV binary
+     */
+    public MpvServicePool(int size, final String mpvPath) {
+        this(size, new ServiceFactoryInterface() {
+            @Override
+            public Service create() {
+                return new Service(mpvPath);
+            }
+        });
+    }
+
+    /**
+     * Constructor
+     *
+     * @param size    The number of instances
+     * @param factory The factory of the instances
+     */
+    public MpvServicePool(int size, ServiceFactoryInterface factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The pool size must be at least 1");
+        }
+        this.size = size;
+        this.factory = factory;
+    }
+
+    /**
+     * Start all the instances (in parallel)
+     *
+     * @throws IOException If an instance can't be started (the started ones are closed)
+     */
+    public void start() throws IOException {
+        if (closed) {
+            throw new IOException("The pool is closed");
+        }
+        List<Callable<Service>> tasks = new ArrayList<>(size - services.size());
+        for (int index = services.size(); index < size; index++) {
+            tasks.add(new Callable<Service>() {
+                @Override
+                public Service call() {
+                    return factory.create();
+                }
+            });
+        }
+
+        List<Future<Service>> futures;
+        try {
+            futures = invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException("Interrupted while starting MPV instances");
+        }
+
+        int failed = 0;
+        Throwable cause = null;
+        for (Future<Service> future : futures) {
+            try {
+                Service service = future.get();
+                services.add(service);
+                if (service.isInitialized()) {
+                    idle.add(service);
+                } else {
+                    failed++;
+                }
+            } catch (ExecutionException e) {
+                failed++;
+                cause = e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed++;
+                cause = e;
+            }
+        }
+
+        if (failed > 0) {
+            close();
+            throw new IOException("Unable to start " + failed + " of " + tasks.size() + " MPV instances", cause);
+        }
+    }
+
+    /**
+     * Hand out an instance, waiting for one to be released if needed
+     *
+     * @return The instance
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public Service acquire() throws InterruptedException {
+        checkOpen();
+        return handOut(idle.take());
+    }
+
+    /**
+     * Hand out an instance, waiting for one to be released if needed
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return The instance, or {@code null} if none was released in time
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public Service acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        checkOpen();
+        Service service = idle.poll(timeout, unit);
+        return service == null ? null : handOut(service);
+    }
+
+    /**
+     * Mark an instance as handed out
+     *
+     * @param service The instance taken from the idle ones
+     * @return The instance
+     */
+    private Service handOut(Service service) {
+        handedOut.add(service);
+        return service;
+    }
+
+    /**
+     * Give back an instance, to be handed out again
+     *
+     * @param service The instance (returned by {@link #acquire()})
+     * @throws IllegalArgumentException If the instance doesn't belong to the pool
+     * @throws IllegalStateException    If the instance is not handed out (never acquired, or already released)
+     */
+    public void release(Service service) {
+        if (closed) {
+            // Already closed with the pool
+            return;
+        }
+        if (!services.contains(service)) {
+            throw new IllegalArgumentException("The service doesn't belong to the pool");
+        }
+        // The removal is the gate: only one release of an acquisition give the instance back
+        if (!handedOut.remove(service)) {
+            throw new IllegalStateException("The service is not handed out");
+        }
+        idle.add(service);
+    }
+
+    /**
+     * Get the number of instances of the pool
+     *
+     * @return The pool size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of instances that can be handed out without waiting
+     *
+     * @return The number of idle instances
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Get all the instances of the pool (handed out or not)
+     *
+     * @return The instances
+     */
+    public List<Service> getServices() {
+        return Collections.unmodifiableList(services);
+    }
+
+    /**
+     * Indicate if the pool is closed
+     *
+     * @return {@code true} if closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Close all the instances (in parallel), including the handed out ones
+     */
+    @Override
+    public void close() {
+        closed = true;
+        idle.clear();
+        handedOut.clear();
+        List<Callable<Void>> tasks = new ArrayList<>(services.size());
+        for (final Service service : services) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    closeQuietly(service);
+                    return null;
+                }
+            });
+        }
+        services.clear();
+        try {
+            invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run tasks in parallel and wait for all of them
+     *
+     * @param tasks The tasks to run
+     * @param <T>   The result type of the tasks
+     * @return The results of the tasks (in the same order)
+     * @throws InterruptedException If interrupted while waiting
+     */
+    private <T> List<Future<T>> invokeAll(List<Callable<T>> tasks) throws InterruptedException {
+        if (tasks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(tasks.size(), MAX_PARALLELISM), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "mpv-pool-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            return executor.invokeAll(tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Close an instance, logging the error (if any)
+     *
+     * @param service The instance to close
+     */
+    private void closeQuietly(Service service) {
+        try {
+            service.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close MPV instance " + service.getSocketPath(), e);
+        }
+    }
+
+    /**
+     * Check that the pool is not closed
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The pool is closed");
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package io.github.macfja.mpv.wrapper;
+
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.util.TypeUtils;
+import io.github.macfja.mpv.MpvService;
+import io.github.macfja.mpv.communication.Command;
+import io.github.macfja.mpv.communication.MpvResponse;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A client-side cache of MPV properties.
+ * <p>
+ * Two kinds of properties are cached:
+ * <ul>
+ * <li>the <em>observed</em> ones (see {@link #observe(String)}): MPV send their changes,
+ * so they are always served from the memory (once the first value is received)</li>
+ * <li>the other ones: they are read from MPV, then kept for a limited time (TTL),
+ * the number of kept properties is bounded (the least recently used are evicted first)</li>
+ * </ul>
+ * A value read while a property is invalidated is not kept, as it may be the value from before the change.
+ *
+ * @author MacFJA
+ */
+public class PropertyCache {
+    /**
+     * The value stored for a property without value (unavailable)
+     */
+    private static final Object NO_VALUE = new Object();
+    /**
+     * The service to read properties from
+     */
+    private final MpvService service;
+    /**
+     * The time (in nanoseconds) a not observed property is kept
+     */
+    private final long timeToLive;
+    /**
+     * The values of the observed properties (by property name)
+     */
+    private final Map<String, Object> observedValues = new ConcurrentHashMap<>();
+    /**
+     * The observers of the observed properties (by property name)
+     */
+    private final Map<String, CacheObserver> observers = new ConcurrentHashMap<>();
+    /**
+     * The values of the other properties, in access order
+     */
+    private final LinkedHashMap<String, CachedValue> entries;
+    /**
+     * The number of invalidations (guarded by {@link #entries})
+     */
+    private long generation = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param service    The service to read properties from
+     * @param timeToLive The time (in milliseconds) a not observed property is kept
+     * @param maxEntries The maximum number of not observed properties kept
+     */
+    public PropertyCache(MpvService service, long timeToLive, final int maxEntries) {
+        this.service = service;
+        this.timeToLive = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        this.entries = new LinkedHashMap<String, CachedValue>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValue> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Observe a property: its value will be updated by MPV, and served without any request.
+     *
+     * @param name The property name
+     * @throws IOException if an I/O error occurs
+     */
+    public void observe(String name) throws IOException {
+        CacheObserver observer = new CacheObserver(name);
+        if (observers.putIfAbsent(name, observer) != null) {
+            return;
+        }
+        service.registerPropertyChange(observer);
+    }
+
+    /**
+     * Stop observing a property
+     *
+     * @param name The property name
+     * @throws IOException if an I/O error occurs
+     */
+    public void unobserve(String name) throws IOException {
+        CacheObserver observer = observers.remove(name);
+        if (observer == null) {
+            return;
+        }
+        observedValues.remove(name);
+        service.unregisterPropertyChange(observer);
+    }
+
+    /**
+     * Indicate if a property is observed
+     *
+     * @param name The property name
+     * @return {@code true} if the property is observed
+     */
+    public boolean isObserved(String name) {
+        return observers.containsKey(name);
+    }
+
+    /**
+     * Get the value of a property, from the cache if possible
+     *
+     * @param name The property name
+     * @return The value, {@code null} if the property is unavailable
+     * @throws IOException if an I/O error occurs
+     */
+    public Object get(String name) throws IOException {
+        Object value = observedValues.get(name);
+        if (value != null) {
+            return value == NO_VALUE ? null : value;
+        }
+        long now = System.nanoTime();
+        long readGeneration;
+        synchronized (entries) {
+            CachedValue entry = entries.get(name);
+            if (entry != null && now - entry.expiresAt < 0) {
+                return entry.value;
+            }
+            readGeneration = generation;
+        }
+
+        MpvResponse response = service.execute(new Command("get_property", name));
+        value = response == null ? null : response.getData();
+        if (response != null && !isObserved(name)) {
+            synchronized (entries) {
+                // Don't keep a value read before an invalidation, it may be outdated
+                if (readGeneration == generation) {
+                    entries.put(name, new CachedValue(value, System.nanoTime() + timeToLive));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Get the value of a property, from the cache if possible
+     *
+     * @param name The property name
+     * @param type The classname of the value data type
+     * @param <T>  The classname of the value data type
+     * @return The value, {@code null} if the property is unavailable
+     * @throws IOException if an I/O error occurs
+     */
+    public <T> T get(String name, Class<T> type) throws IOException {
+        return TypeUtils.castToJavaBean(get(name), type);
+    }
+
+    /**
+     * Remove the value of not observed properties, they will be read from MPV on the next access.
+     * The values being read at the same time are not kept.
+     *
+     * @param names The property names
+     */
+    public void invalidate(String... names) {
+        synchronized (entries) {
+            generation++;
+            for (String name : names) {
+                entries.remove(name);
+            }
+        }
+    }
+
+    /**
+     * Remove the values of all the not observed properties
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Get the number of not observed properties that are kept
+     *
+     * @return The number of properties
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * A value of a not observed property
+     */
+    private static class CachedValue {
+        /**
+         * The property value
+         */
+        private final Object value;
+        /**
+         * The time (from {@link System#nanoTime()}) when the value expire
+         */
+        private final long expiresAt;
+
+        /**
+         * Constructor.
+         *
+         * @param value     The property value
+         * @param expiresAt The time when the value expire
+         */
+        CachedValue(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * The observer that store the changes of a property
+     */
+    private class CacheObserver extends PropertyObserver {
+        /**
+         * Constructor.
+         *
+         * @param propertyName The name of the observed property
+         */
+        CacheObserver(String propertyName) {
+            super(propertyName);
+        }
+
+        @Override
+        public boolean canHandle(JSONObject message) {
+            // Also handle the changes to an unavailable property (without data)
+            return "property-change".equals(message.getString("event"))
+                    && getPropertyName().equals(message.getString("name"))
+                    && message.getIntValue("id") == getId();
+        }
+
+        @Override
+        public Runnable doHandle(JSONObject message) {
+            // The value is stored by the reader thread, so the changes are kept in order
+            changed(getPropertyName(), message.get("data"), getId());
+            return null;
+        }
+
+        @Override
+        public void changed(String propertyName, Object value, Integer id) {
+            if (observers.get(propertyName) == this) {
+                observedValues.put(propertyName, value == null ? NO_VALUE : value);
+            }
+        }
+    }
+}
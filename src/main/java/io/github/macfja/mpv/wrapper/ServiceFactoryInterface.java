@@ -0,0 +1,18 @@
+package io.github.macfja.mpv.wrapper;
+
+import io.github.macfja.mpv.Service;
+
+/**
+ * Create the MPV services of a {@link MpvServicePool}.
+ *
+ * @author MacFJA
+ */
+public interface ServiceFactoryInterface {
+    /**
+     * Create (and start) a new service.
+     * It can be called concurrently, so each service must use its own socket path.
+     *
+     * @return The new service
+     */
+    Service create();
+}
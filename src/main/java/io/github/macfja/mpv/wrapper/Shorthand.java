@@ -1,9 +1,11 @@
 package io.github.macfja.mpv.wrapper;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import io.github.macfja.mpv.MpvService;
+import io.github.macfja.mpv.communication.Command;
+import io.github.macfja.mpv.communication.MpvResponse;
 import io.github.macfja.mpv.communication.handling.NamedEventHandler;
+import io.github.macfja.mpv.reactive.PublisherInterface;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -11,9 +13,11 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  * Wrapper class to add common actions
@@ -21,10 +25,25 @@ import java.util.Map;
  * @author MacFJA
  */
 public class Shorthand implements MpvService {
+    /**
+     * The properties that change when the played media change
+     */
+    private static final String[] MEDIA_PROPERTIES = {
+            "path", "filename", "media-title", "metadata", "duration",
+            "time-pos", "time-remaining", "percent-pos", "playlist-pos", "playlist-count"
+    };
+    /**
+     * The properties that change when the playback position change
+     */
+    private static final String[] POSITION_PROPERTIES = {"time-pos", "time-remaining", "percent-pos"};
     /**
      * The wrapped service
      */
     protected MpvService service;
+    /**
+     * The property cache ({@code null} if not enabled)
+     */
+    private volatile PropertyCache propertyCache;
 
     /**
      * Constructor
@@ -35,6 +54,57 @@ public class Shorthand implements MpvService {
         this.service = service;
     }
 
+    /**
+     * Enable the client-side property cache.
+     * The typed property getters ({@link #getProperty(String, Class)}, {@link #getDoubleProperty(String, double)}, etc.)
+     * are then served by the cache. The properties changed with this class (including the media and position ones
+     * on {@code loadfile}, {@code playlist-next}, {@code seek}, etc.) are invalidated once MPV has processed the change,
+     * but the changes made by other commands, or by the playback itself (like {@code time-pos}), are only visible
+     * once the TTL expire: observe these properties to always get their current value.
+     *
+     * @param timeToLive The time (in milliseconds) a not observed property is kept
+     * @param maxEntries The maximum number of not observed properties kept
+     * @return The cache, to configure the observed properties
+     * @see PropertyCache#observe(String)
+     */
+    public PropertyCache enablePropertyCache(long timeToLive, int maxEntries) {
+        propertyCache = new PropertyCache(service, timeToLive, maxEntries);
+        return propertyCache;
+    }
+
+    /**
+     * Get the client-side property cache
+     *
+     * @return The cache, {@code null} if it's not enabled
+     */
+    public PropertyCache getPropertyCache() {
+        return propertyCache;
+    }
+
+    /**
+     * Remove properties from the cache (if enabled)
+     *
+     * @param names The property names
+     */
+    private void invalidate(String... names) {
+        PropertyCache cache = propertyCache;
+        if (cache != null) {
+            cache.invalidate(names);
+        }
+    }
+
+    /**
+     * Remove a property from the cache (if enabled) once a change is processed by MPV
+     *
+     * @param name   The property name
+     * @param change The future response of the change
+     * @param <T>    The type of the response
+     * @return The future response, completed after the invalidation
+     */
+    private <T> CompletableFuture<T> invalidateOnComplete(final String name, CompletableFuture<T> change) {
+        return change.whenComplete((response, error) -> invalidate(name));
+    }
+
     /**
      * Change the position of the playback
      *
@@ -44,6 +114,7 @@ public class Shorthand implements MpvService {
      */
     public void seek(Integer amount, Seek seekType) throws IOException {
         service.sendCommand("seek", Arrays.asList(amount, seekType.type));
+        invalidate(POSITION_PROPERTIES);
     }
 
     /**
@@ -62,7 +133,7 @@ public class Shorthand implements MpvService {
      * @throws IOException If an error occurs when sending the command
      */
     public void play() throws IOException {
-        service.setProperty("pause", false);
+        setProperty("pause", false);
     }
 
     /**
@@ -71,7 +142,7 @@ public class Shorthand implements MpvService {
      * @throws IOException If an error occurs when sending the command
      */
     public void pause() throws IOException {
-        service.setProperty("pause", true);
+        setProperty("pause", true);
     }
 
     /**
@@ -81,6 +152,7 @@ public class Shorthand implements MpvService {
      */
     public void playPause() throws IOException {
         service.sendCommand("cycle", Collections.singletonList("pause"));
+        invalidate("pause");
     }
 
     /**
@@ -93,6 +165,25 @@ public class Shorthand implements MpvService {
      */
     public void addMedia(String path, Boolean addToPlaylist) throws IOException {
         service.sendCommand("loadfile", Arrays.asList(path.trim(), addToPlaylist ? "append-play" : "replace"));
+        invalidate(MEDIA_PROPERTIES);
+    }
+
+    /**
+     * Add several new medias, in one batch of commands
+     *
+     * @param paths         The paths where the medias are
+     * @param addToPlaylist <p>If {@code false}, the first media will replace the current media,
+     *                      otherwise all medias will be added to the end of the playlist</p>
+     * @throws IOException If an error occurs when sending the commands
+     */
+    public void addMedia(List<String> paths, Boolean addToPlaylist) throws IOException {
+        List<Command> commands = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            boolean append = addToPlaylist || !commands.isEmpty();
+            commands.add(new Command("loadfile", path.trim(), append ? "append-play" : "replace"));
+        }
+        service.sendCommands(commands);
+        invalidate(MEDIA_PROPERTIES);
     }
 
     /**
@@ -100,21 +191,42 @@ public class Shorthand implements MpvService {
      *
      * @return A map that contains the elapsing and remaining time
      * @throws IOException If an error occurs when sending the command
+     * @see #getTimePosition()
+     * @see #getTimeRemaining()
      */
     public Map<TimeKey, BigDecimal> getTimes() throws IOException {
-        Map<TimeKey, BigDecimal> result = new HashMap<>();
-        JSONObject object;
-        object = JSON.parseObject(service.getProperty("time-remaining"));
-        BigDecimal remaining = object.getBigDecimal("data");
-        object = JSON.parseObject(service.getProperty("time-pos"));
-        BigDecimal elapsing = object.getBigDecimal("data");
+        Map<TimeKey, BigDecimal> result = new EnumMap<>(TimeKey.class);
+        List<MpvResponse> responses = service.execute(Arrays.asList(
+                new Command("get_property", "time-remaining"),
+                new Command("get_property", "time-pos")
+        ));
 
-        result.put(TimeKey.Remaining, remaining);
-        result.put(TimeKey.Elapsing, elapsing);
+        result.put(TimeKey.Remaining, responses.get(0) == null ? null : responses.get(0).getData(BigDecimal.class));
+        result.put(TimeKey.Elapsing, responses.get(1) == null ? null : responses.get(1).getData(BigDecimal.class));
 
         return result;
     }
 
+    /**
+     * Get the elapsed time of the current playback, in seconds.
+     *
+     * @return The position, {@code NaN} if nothing is played
+     * @throws IOException If an error occurs when sending the command
+     */
+    public double getTimePosition() throws IOException {
+        return service.getDoubleProperty("time-pos", Double.NaN);
+    }
+
+    /**
+     * Get the remaining time of the current playback, in seconds.
+     *
+     * @return The remaining time, {@code NaN} if nothing is played
+     * @throws IOException If an error occurs when sending the command
+     */
+    public double getTimeRemaining() throws IOException {
+        return service.getDoubleProperty("time-remaining", Double.NaN);
+    }
+
     /**
      * Play the next media
      *
@@ -122,6 +234,7 @@ public class Shorthand implements MpvService {
      */
     public void next() throws IOException {
         service.sendCommand("playlist-next", new ArrayList<Serializable>());
+        invalidate(MEDIA_PROPERTIES);
     }
 
     /**
@@ -131,6 +244,7 @@ public class Shorthand implements MpvService {
      */
     public void previous() throws IOException {
         service.sendCommand("playlist-prev", new ArrayList<Serializable>());
+        invalidate(MEDIA_PROPERTIES);
     }
 
     @Override
@@ -138,6 +252,41 @@ public class Shorthand implements MpvService {
         return service.sendCommand(command, arguments);
     }
 
+    @Override
+    public CompletableFuture<String> sendCommandAsync(String command, List<? extends Serializable> arguments) {
+        return service.sendCommandAsync(command, arguments);
+    }
+
+    @Override
+    public List<String> sendCommands(List<Command> commands) throws IOException {
+        return service.sendCommands(commands);
+    }
+
+    @Override
+    public List<CompletableFuture<String>> sendCommandsAsync(List<Command> commands) {
+        return service.sendCommandsAsync(commands);
+    }
+
+    @Override
+    public MpvResponse execute(Command command) throws IOException {
+        return service.execute(command);
+    }
+
+    @Override
+    public CompletableFuture<MpvResponse> executeAsync(Command command) {
+        return service.executeAsync(command);
+    }
+
+    @Override
+    public List<MpvResponse> execute(List<Command> commands) throws IOException {
+        return service.execute(commands);
+    }
+
+    @Override
+    public List<CompletableFuture<MpvResponse>> executeAsync(List<Command> commands) {
+        return service.executeAsync(commands);
+    }
+
     @Override
     public void sendNonBlockingCommand(String command, List<? extends Serializable> arguments) throws IOException {
         service.sendCommand(command, arguments);
@@ -145,12 +294,26 @@ public class Shorthand implements MpvService {
 
     @Override
     public String setProperty(String name, String value) throws IOException {
-        return service.setProperty(name, value);
+        String result = service.setProperty(name, value);
+        invalidate(name);
+        return result;
     }
 
     @Override
     public String setProperty(String name, Boolean value) throws IOException {
-        return service.setProperty(name, value);
+        String result = service.setProperty(name, value);
+        invalidate(name);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<String> setPropertyAsync(String name, String value) {
+        return invalidateOnComplete(name, service.setPropertyAsync(name, value));
+    }
+
+    @Override
+    public CompletableFuture<String> setPropertyAsync(String name, Boolean value) {
+        return invalidateOnComplete(name, service.setPropertyAsync(name, value));
     }
 
     @Override
@@ -160,8 +323,66 @@ public class Shorthand implements MpvService {
 
     @Override
     public <T> T getProperty(String name, Class<T> type) throws IOException {
-        String result = getProperty(name);
-        return JSONObject.parseObject(result).getObject("data", type);
+        PropertyCache cache = propertyCache;
+        if (cache != null) {
+            return cache.get(name, type);
+        }
+        return service.getProperty(name, type);
+    }
+
+    @Override
+    public CompletableFuture<String> getPropertyAsync(String name) {
+        return service.getPropertyAsync(name);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getPropertyAsync(String name, Class<T> type) {
+        return service.getPropertyAsync(name, type);
+    }
+
+    @Override
+    public double getDoubleProperty(String name, double defaultValue) throws IOException {
+        PropertyCache cache = propertyCache;
+        if (cache != null) {
+            Object value = cache.get(name);
+            return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+        }
+        return service.getDoubleProperty(name, defaultValue);
+    }
+
+    @Override
+    public long getLongProperty(String name, long defaultValue) throws IOException {
+        PropertyCache cache = propertyCache;
+        if (cache != null) {
+            Object value = cache.get(name);
+            return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+        }
+        return service.getLongProperty(name, defaultValue);
+    }
+
+    @Override
+    public boolean getBooleanProperty(String name, boolean defaultValue) throws IOException {
+        PropertyCache cache = propertyCache;
+        if (cache != null) {
+            Object value = cache.get(name);
+            return value instanceof Boolean ? (Boolean) value : defaultValue;
+        }
+        return service.getBooleanProperty(name, defaultValue);
+    }
+
+    @Override
+    public CompletableFuture<Double> getDoublePropertyAsync(String name, double defaultValue) {
+        return service.getDoublePropertyAsync(name, defaultValue);
+    }
+
+    @Override
+    public CompletableFuture<Long> getLongPropertyAsync(String name, long defaultValue) {
+        return service.getLongPropertyAsync(name, defaultValue);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> getBooleanPropertyAsync(String name, boolean defaultValue) {
+        return service.getBooleanPropertyAsync(name, defaultValue);
     }
 
     @Override
@@ -169,6 +390,11 @@ public class Shorthand implements MpvService {
         service.registerEvent(observer);
     }
 
+    @Override
+    public void unregisterEvent(NamedEventHandler observer) {
+        service.unregisterEvent(observer);
+    }
+
     @Override
     public void registerPropertyChange(io.github.macfja.mpv.communication.handling.PropertyObserver observer) throws IOException {
         service.registerPropertyChange(observer);
@@ -181,6 +407,10 @@ public class Shorthand implements MpvService {
 
     @Override
     public void unregisterPropertyChange(String propertyName) throws IOException {
+        PropertyCache cache = propertyCache;
+        if (cache != null) {
+            cache.unobserve(propertyName);
+        }
         service.unregisterPropertyChange(propertyName);
     }
 
@@ -209,6 +439,26 @@ public class Shorthand implements MpvService {
         service.waitForEvent(eventName, timeout);
     }
 
+    @Override
+    public CompletableFuture<JSONObject> awaitEvent(String eventName, long timeout) {
+        return service.awaitEvent(eventName, timeout);
+    }
+
+    @Override
+    public CompletableFuture<JSONObject> awaitEvent(String eventName, Predicate<JSONObject> predicate, long timeout) {
+        return service.awaitEvent(eventName, predicate, timeout);
+    }
+
+    @Override
+    public PublisherInterface<JSONObject> eventPublisher(String eventName) {
+        return service.eventPublisher(eventName);
+    }
+
+    @Override
+    public PublisherInterface<Object> propertyPublisher(String propertyName) {
+        return service.propertyPublisher(propertyName);
+    }
+
     @Override
     public void close() throws IOException {
         service.close();
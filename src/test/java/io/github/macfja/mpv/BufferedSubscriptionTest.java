@@ -0,0 +1,122 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.reactive.BufferedSubscription;
+import io.github.macfja.mpv.reactive.SubscriberInterface;
+import io.github.macfja.mpv.reactive.SubscriptionInterface;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class BufferedSubscriptionTest {
+    @Test
+    public void testDropOldest() {
+        final List<Object> items = new ArrayList<>();
+        SubscriberInterface<Integer> subscriber = new SubscriberInterface<Integer>() {
+            @Override
+            public void onSubscribe(SubscriptionInterface subscription) {
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                items.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                items.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        };
+        Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        BufferedSubscription<Integer> subscription = new BufferedSubscription<>(subscriber, 2, direct);
+        subscription.start();
+        for (int index = 0; index < 5; index++) {
+            subscription.offer(index);
+        }
+        Assert.assertTrue(items.isEmpty());
+        Assert.assertEquals(3, subscription.getDroppedCount());
+
+        // Only the most recent items are kept
+        subscription.request(10);
+        Assert.assertEquals(2, items.size());
+        Assert.assertEquals(3, items.get(0));
+        Assert.assertEquals(4, items.get(1));
+
+        // The remaining demand is served immediately
+        subscription.offer(5);
+        Assert.assertEquals(5, items.get(2));
+
+        subscription.request(0);
+        Assert.assertTrue(items.get(3) instanceof IllegalArgumentException);
+        Assert.assertTrue(subscription.isCancelled());
+    }
+
+    @Test
+    public void testPublishers() throws Exception {
+        final BlockingQueue<Object> items = new LinkedBlockingQueue<>();
+        final List<SubscriptionInterface> subscriptions = new ArrayList<>();
+        SubscriberInterface<Object> subscriber = new SubscriberInterface<Object>() {
+            @Override
+            public void onSubscribe(SubscriptionInterface subscription) {
+                subscriptions.add(subscription);
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(Object item) {
+                items.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                items.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        };
+
+        FakeMpv fakeMpv = new FakeMpv();
+        try (Service service = fakeMpv.connect()) {
+            service.eventPublisher("seek").subscribe(subscriber);
+            for (int index = 0; index < 5; index++) {
+                service.fireEvent(new JSONObject().fluentPut("event", "seek").fluentPut("index", index));
+            }
+            Assert.assertEquals(0, ((JSONObject) items.poll(1, TimeUnit.SECONDS)).getIntValue("index"));
+            Assert.assertEquals(1, ((JSONObject) items.poll(1, TimeUnit.SECONDS)).getIntValue("index"));
+            // Only 2 requested
+            Assert.assertNull(items.poll(100, TimeUnit.MILLISECONDS));
+            subscriptions.get(0).request(Long.MAX_VALUE);
+            for (int index = 2; index < 5; index++) {
+                Assert.assertEquals(index, ((JSONObject) items.poll(1, TimeUnit.SECONDS)).getIntValue("index"));
+            }
+            subscriptions.get(0).cancel();
+            service.fireEvent(new JSONObject().fluentPut("event", "seek").fluentPut("index", 5));
+            Assert.assertNull(items.poll(100, TimeUnit.MILLISECONDS));
+
+            service.propertyPublisher("gamma").subscribe(subscriber);
+            Assert.assertTrue(fakeMpv.isObserved("gamma"));
+            service.setProperty("gamma", "4");
+            Assert.assertEquals("4", items.poll(1, TimeUnit.SECONDS));
+            subscriptions.get(1).cancel();
+            service.getProperty("gamma");
+            Assert.assertFalse(fakeMpv.isObserved("gamma"));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.communication.handling.ConflatingPropertyObserver;
+import io.github.macfja.mpv.communication.handling.HandlerExecutor;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConflatingPropertyObserverTest {
+    @Test
+    public void testLatestValue() throws InterruptedException {
+        final List<Object> received = new CopyOnWriteArrayList<>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        ConflatingPropertyObserver observer = new ConflatingPropertyObserver("time-pos") {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(value);
+                running.decrementAndGet();
+            }
+        };
+        HandlerExecutor executor = HandlerExecutor.bounded(4, 16);
+        observer.setExecutor(executor);
+
+        int id = PropertyObserver.getDefaultId("time-pos");
+        for (int index = 0; index < 500; index++) {
+            observer.handle(PropertyObserver.buildPropertyChangeEvent("time-pos", index, id));
+        }
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while ((received.isEmpty() || !Integer.valueOf(499).equals(received.get(received.size() - 1)))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(499, received.get(received.size() - 1));
+        Assert.assertTrue(received.size() < 500);
+        Assert.assertEquals(500, received.size() + observer.getConflatedCount());
+        Assert.assertEquals(0, overlaps.get());
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.MessagesListener;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class EventWaitersTest {
+    @Test
+    public void testSingleHandlerPerEvent() {
+        MessagesListener listener = new MessagesListener(LoggerFactory.getLogger(EventWaitersTest.class));
+        EventWaiters waiters = new EventWaiters(listener);
+        CompletableFuture<JSONObject> any = waiters.await("seek", null);
+        CompletableFuture<JSONObject> forward = waiters.await("seek", event -> event.getIntValue("to") > 10);
+        waiters.await("pause", null);
+        Assert.assertEquals(3, waiters.size());
+        Assert.assertEquals(2, listener.getMessageHandlers().size());
+
+        listener.handleLine(new JSONObject().fluentPut("event", "seek").fluentPut("to", 5));
+        Assert.assertTrue(any.isDone());
+        Assert.assertFalse(forward.isDone());
+        Assert.assertEquals(2, waiters.size());
+
+        // The last waiter of the event leave: its handler is removed
+        forward.cancel(false);
+        Assert.assertEquals(1, waiters.size());
+        Assert.assertEquals(1, listener.getMessageHandlers().size());
+    }
+
+    @Test
+    public void testAwaitEvent() throws Exception {
+        try (Service service = new FakeMpv().connect()) {
+            CompletableFuture<JSONObject> loaded = service.awaitEvent("file-loaded", 1000);
+            CompletableFuture<JSONObject> error = service.awaitEvent("end-file", event -> "error".equals(event.getString("reason")), 1000);
+            CompletableFuture<JSONObject> eof = service.awaitEvent("end-file", event -> "eof".equals(event.getString("reason")), 1000);
+            CompletableFuture<JSONObject> never = service.awaitEvent("shutdown", 50);
+            Assert.assertEquals(4, service.getEventWaiterCount());
+
+            service.fireEvent("file-loaded");
+            service.fireEvent(new JSONObject().fluentPut("event", "end-file").fluentPut("reason", "eof"));
+
+            Assert.assertEquals("file-loaded", loaded.get(1, TimeUnit.SECONDS).getString("event"));
+            Assert.assertEquals("eof", eof.get(1, TimeUnit.SECONDS).getString("reason"));
+            Assert.assertFalse(error.isDone());
+            try {
+                never.get(1, TimeUnit.SECONDS);
+                Assert.fail("The event never occur");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            }
+
+            error.cancel(false);
+            long deadline = System.currentTimeMillis() + 1000;
+            while (service.getEventWaiterCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(0, service.getEventWaiterCount());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import io.github.macfja.mpv.wrapper.ExistingService;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal MPV, that only know about properties.
+ */
+class FakeMpv implements LoopbackCommunication.Responder {
+    private final Map<String, Object> properties = new HashMap<>();
+    private final Map<String, Integer> observed = new HashMap<>();
+    final AtomicInteger reads = new AtomicInteger();
+
+    FakeMpv() {
+        properties.put("mpv-version", "mpv loopback");
+    }
+
+    /**
+     * Create a service connected to this MPV
+     *
+     * @return The service (with its own socket path)
+     */
+    Service connect() {
+        return new ExistingService(Service.createSocketPath(), new LoopbackCommunication(this));
+    }
+
+    synchronized boolean isObserved(String name) {
+        return observed.containsKey(name);
+    }
+
+    synchronized Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    @Override
+    public synchronized void respond(String line, LoopbackCommunication client) {
+        JSONObject request = JSONObject.parseObject(line);
+        JSONArray command = request.getJSONArray("command");
+        JSONObject response = new JSONObject()
+                .fluentPut("error", "success")
+                .fluentPut("request_id", request.get("request_id"));
+
+        switch (command.getString(0)) {
+            case "get_property":
+                reads.incrementAndGet();
+                response.put("data", properties.get(command.getString(1)));
+                break;
+            case "set_property":
+                properties.put(command.getString(1), command.get(2));
+                if (observed.containsKey(command.getString(1))) {
+                    client.push(PropertyObserver.buildPropertyChangeEvent(
+                            command.getString(1), command.get(2), observed.get(command.getString(1))
+                    ));
+                }
+                break;
+            case "expand-text":
+                response.put("data", command.getString(1));
+                break;
+            case "observe_property":
+                observed.put(command.getString(2), command.getInteger(1));
+                break;
+            case "unobserve_property":
+                observed.values().removeAll(Collections.singleton(command.getInteger(1)));
+                break;
+            default:
+                break;
+        }
+        client.push(response);
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.handling.HandlerExecutor;
+import io.github.macfja.mpv.communication.handling.NamedEventHandler;
+import io.github.macfja.mpv.communication.handling.SerialExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HandlerExecutorTest {
+    @Test
+    public void testInline() {
+        final AtomicReference<Thread> runner = new AtomicReference<>();
+        NamedEventHandler handler = new NamedEventHandler("idle") {
+            @Override
+            public Runnable doHandle(JSONObject message) {
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        runner.set(Thread.currentThread());
+                    }
+                };
+            }
+        };
+        HandlerExecutor executor = HandlerExecutor.inline();
+        handler.setExecutor(executor);
+        handler.handle(new JSONObject().fluentPut("event", "idle"));
+
+        Assert.assertSame(Thread.currentThread(), runner.get());
+        Assert.assertEquals(1, executor.getSubmittedCount());
+    }
+
+    @Test
+    public void testBoundedSaturation() throws InterruptedException {
+        HandlerExecutor executor = HandlerExecutor.bounded(1, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(3);
+        Runnable blocking = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+        executor.execute(blocking);
+        executor.execute(blocking);
+        Assert.assertEquals(1, executor.getQueuedCount());
+
+        // The pool and its queue are full: the task is run by a new thread, not by the caller
+        final AtomicReference<Thread> runner = new AtomicReference<>();
+        final CountDownLatch overflow = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                runner.set(Thread.currentThread());
+                overflow.countDown();
+                done.countDown();
+            }
+        });
+        Assert.assertEquals(1, executor.getRejectedCount());
+        // Run even if the pool threads are still blocked
+        Assert.assertTrue(overflow.await(1, TimeUnit.SECONDS));
+        Assert.assertNotSame(Thread.currentThread(), runner.get());
+
+        release.countDown();
+        Assert.assertTrue(done.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(3, executor.getSubmittedCount());
+
+        // Once shut down, the tasks are dropped (not rejected)
+        executor.shutdown();
+        executor.execute(blocking);
+        Assert.assertEquals(1, executor.getRejectedCount());
+        Assert.assertEquals(1, executor.getDroppedCount());
+    }
+
+    @Test
+    public void testSerialOrder() throws InterruptedException {
+        HandlerExecutor pool = HandlerExecutor.bounded(4, 16);
+        final List<Integer> first = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Integer> second = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch done = new CountDownLatch(2000);
+        SerialExecutor firstExecutor = new SerialExecutor(pool);
+        SerialExecutor secondExecutor = new SerialExecutor(pool);
+        for (int index = 0; index < 1000; index++) {
+            final int value = index;
+            firstExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    first.add(value);
+                    done.countDown();
+                }
+            });
+            secondExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    second.add(value);
+                    done.countDown();
+                }
+            });
+        }
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int index = 0; index < 1000; index++) {
+            Assert.assertEquals(index, (int) first.get(index));
+            Assert.assertEquals(index, (int) second.get(index));
+        }
+        pool.shutdown();
+    }
+}
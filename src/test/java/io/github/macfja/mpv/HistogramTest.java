@@ -0,0 +1,18 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.metrics.Histogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramTest {
+    @Test
+    public void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000L);
+        }
+        Assert.assertEquals(500000, histogram.getPercentile(0.5), 500000 * 0.125);
+        Assert.assertEquals(990000, histogram.getPercentile(0.99), 990000 * 0.125);
+        Assert.assertEquals(1000000, histogram.getMax());
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.communication.Command;
+import io.github.macfja.mpv.communication.InterceptorChain;
+import io.github.macfja.mpv.communication.InterceptorInterface;
+import io.github.macfja.mpv.communication.MpvResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InterceptorChainTest {
+    @Test
+    public void testOrderAndFailure() {
+        final List<String> calls = new ArrayList<>();
+        InterceptorInterface failing = new InterceptorInterface() {
+            @Override
+            public void onSend(int requestId, Command command, String line, long timestamp) {
+                calls.add("failing");
+                throw new IllegalStateException("Interceptor failure");
+            }
+
+            @Override
+            public void onReceive(Integer requestId, byte[] buffer, int offset, int length, long timestamp) {
+            }
+        };
+        InterceptorInterface recording = new InterceptorInterface() {
+            @Override
+            public void onSend(int requestId, Command command, String line, long timestamp) {
+                calls.add("recording " + requestId);
+            }
+
+            @Override
+            public void onReceive(Integer requestId, byte[] buffer, int offset, int length, long timestamp) {
+                calls.add("received " + new String(buffer, offset, length, StandardCharsets.UTF_8));
+            }
+        };
+        InterceptorChain chain = new InterceptorChain();
+        Assert.assertTrue(chain.isEmpty());
+        chain.add(failing);
+        chain.add(recording);
+
+        // A failing interceptor doesn't prevent the next ones
+        chain.fireSend(7, new Command("stop"), "{}");
+        byte[] buffer = "..{\"data\":1}..".getBytes(StandardCharsets.UTF_8);
+        chain.fireReceive(7, buffer, 2, buffer.length - 4);
+        Assert.assertEquals(3, calls.size());
+        Assert.assertEquals("failing", calls.get(0));
+        Assert.assertEquals("recording 7", calls.get(1));
+        Assert.assertEquals("received {\"data\":1}", calls.get(2));
+
+        chain.remove(failing);
+        chain.remove(recording);
+        Assert.assertTrue(chain.isEmpty());
+        chain.fireSend(8, new Command("stop"), "{}");
+        Assert.assertEquals(3, calls.size());
+    }
+
+    @Test
+    public void testInterceptors() throws Exception {
+        final List<Integer> sent = new CopyOnWriteArrayList<>();
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        InterceptorInterface interceptor = new InterceptorInterface() {
+            @Override
+            public void onSend(int requestId, Command command, String line, long timestamp) {
+                sent.add(requestId);
+                lines.add(line);
+            }
+
+            @Override
+            public void onReceive(Integer requestId, byte[] buffer, int offset, int length, long timestamp) {
+                received.add(requestId);
+                lines.add(new String(buffer, offset, length, StandardCharsets.UTF_8));
+            }
+        };
+        try (Service service = new FakeMpv().connect()) {
+            service.addInterceptor(interceptor);
+            MpvResponse response = service.execute(new Command("get_property", "mpv-version"));
+            Assert.assertEquals(1, sent.size());
+            Assert.assertEquals(sent, received);
+            Assert.assertEquals(response.getRequestId(), sent.get(0));
+            Assert.assertTrue(lines.get(0).contains("\"get_property\""));
+            Assert.assertTrue(lines.get(1).contains("mpv loopback"));
+
+            service.removeInterceptor(interceptor);
+            service.execute(new Command("get_property", "mpv-version"));
+            Assert.assertEquals(1, sent.size());
+            Assert.assertEquals(1, received.size());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.communication.LineReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LineReaderTest {
+    @Test
+    public void testLines() throws IOException {
+        StringBuilder longLine = new StringBuilder();
+        for (int index = 0; index < 100000; index++) {
+            longLine.append((char) ('a' + index % 26));
+        }
+        String content = "{\"event\":\"idle\"}\n\r\n{\"data\":\"h\u00e9llo \u266b\"}\r\n" + longLine + "\nlast";
+
+        // Small reads and a small buffer, to go through compaction and growth
+        List<String> lines = readAll(new ChunkedStream(content.getBytes(StandardCharsets.UTF_8), 7), 4);
+
+        Assert.assertEquals(Arrays.asList(
+                "{\"event\":\"idle\"}", "", "{\"data\":\"h\u00e9llo \u266b\"}", longLine.toString(), "last"
+        ), lines);
+    }
+
+    private static List<String> readAll(InputStream stream, int capacity) throws IOException {
+        LineReader reader = new LineReader(stream, capacity);
+        List<String> lines = new ArrayList<>();
+        int length;
+        while ((length = reader.nextLine()) >= 0) {
+            lines.add(new String(reader.getBuffer(), reader.getLineOffset(), length, StandardCharsets.UTF_8));
+        }
+        return lines;
+    }
+
+    /**
+     * A stream that return at most a fixed number of bytes per read.
+     */
+    private static class ChunkedStream extends ByteArrayInputStream {
+        private final int chunk;
+
+        ChunkedStream(byte[] content, int chunk) {
+            super(content);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length) {
+            return super.read(bytes, offset, Math.min(length, chunk));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.Command;
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import io.github.macfja.mpv.communication.MpvResponse;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import io.github.macfja.mpv.communication.handling.ResponseHandler;
+import io.github.macfja.mpv.wrapper.ExistingService;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoopbackCommunicationTest {
+    static MpvService mpvService;
+    static FakeMpv fakeMpv;
+
+    @BeforeClass
+    static public void init() {
+        fakeMpv = new FakeMpv();
+        mpvService = fakeMpv.connect();
+    }
+
+    @AfterClass
+    static public void finish() {
+        try {
+            mpvService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        mpvService = null;
+    }
+
+    @Test
+    public void testGetProperty() throws IOException {
+        String result = mpvService.getProperty("mpv-version");
+        Assert.assertTrue(ResponseHandler.isResultSuccess(result));
+        Assert.assertEquals("mpv loopback", mpvService.getProperty("mpv-version", String.class));
+    }
+
+    @Test
+    public void testSetProperty() throws IOException {
+        mpvService.setProperty("volume", "42");
+        Assert.assertEquals(42, (int) mpvService.getProperty("volume", Integer.class));
+    }
+
+    @Test
+    public void testPropertyChange() throws Exception {
+        final BlockingQueue<Object> changes = new LinkedBlockingQueue<>();
+        PropertyObserver observer = new PropertyObserver("pause") {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+                changes.add(value);
+            }
+        };
+        mpvService.registerPropertyChange(observer);
+        mpvService.setProperty("pause", true);
+        Assert.assertEquals(true, changes.poll(1, TimeUnit.SECONDS));
+        mpvService.unregisterPropertyChange(observer);
+        mpvService.setProperty("pause", false);
+        Assert.assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        CompletableFuture<String> set = mpvService.setPropertyAsync("volume", "12");
+        CompletableFuture<Integer> get = mpvService.getPropertyAsync("volume", Integer.class);
+        Assert.assertTrue(ResponseHandler.isResultSuccess(set.get(1, TimeUnit.SECONDS)));
+        Assert.assertEquals(12, (int) get.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConcurrentCommands() throws Exception {
+        final List<CompletableFuture<String>> responses = Collections.synchronizedList(new ArrayList<CompletableFuture<String>>());
+        List<Thread> threads = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            final int threadIndex = thread;
+            threads.add(new Thread(() -> {
+                for (int command = 0; command < 500; command++) {
+                    responses.add(mpvService.sendCommandAsync(
+                            "expand-text", Collections.singletonList(threadIndex + "-" + command)
+                    ));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Set<String> received = new HashSet<>();
+        for (CompletableFuture<String> response : responses) {
+            received.add(JSONObject.parseObject(response.get(5, TimeUnit.SECONDS)).getString("data"));
+        }
+        Assert.assertEquals(8 * 500, received.size());
+        Assert.assertEquals(0, ((Service) mpvService).getInFlightRequestCount());
+    }
+
+    @Test
+    public void testConcurrentOpen() throws Exception {
+        final AtomicInteger connections = new AtomicInteger();
+        final LoopbackCommunication communication = new LoopbackCommunication() {
+            @Override
+            protected void connect() {
+                connections.incrementAndGet();
+                try {
+                    // Let the other threads see the communication not opened yet
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.connect();
+            }
+        };
+        communication.setExitOnClose(false);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    communication.write("get_property", Collections.singletonList("volume"));
+                } catch (Exception e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        communication.close();
+        Assert.assertEquals(Collections.emptyList(), errors);
+        Assert.assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void testBatch() throws IOException {
+        List<String> results = mpvService.sendCommands(Arrays.asList(
+                new Command("set_property", "volume", "7"),
+                new Command("expand-text", "second"),
+                new Command("get_property", "volume")
+        ));
+        Assert.assertEquals(3, results.size());
+        Assert.assertTrue(ResponseHandler.isResultSuccess(results.get(0)));
+        Assert.assertEquals("second", JSONObject.parseObject(results.get(1)).getString("data"));
+        Assert.assertEquals("7", JSONObject.parseObject(results.get(2)).getString("data"));
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        mpvService.setProperty("speed", "2");
+        MpvResponse response = mpvService.execute(new Command("get_property", "speed"));
+        Assert.assertTrue(response.isSuccess());
+        Assert.assertEquals(2, (int) response.getData(Integer.class));
+        Assert.assertNotNull(response.getRequestId());
+
+        MpvResponse async = mpvService.executeAsync(new Command("expand-text", "async")).get(1, TimeUnit.SECONDS);
+        Assert.assertEquals("async", async.getData());
+        Assert.assertEquals("async", JSONObject.parseObject(async.getRaw()).getString("data"));
+    }
+
+    @Test
+    public void testPrimitiveProperty() throws Exception {
+        mpvService.sendCommand("set_property", Arrays.asList("time-pos", 12.5));
+        mpvService.setProperty("mute", true);
+        Assert.assertEquals(12.5, mpvService.getDoubleProperty("time-pos", Double.NaN), 0);
+        Assert.assertEquals(12L, mpvService.getLongProperty("time-pos", -1));
+        Assert.assertTrue(mpvService.getBooleanProperty("mute", false));
+        Assert.assertEquals(-1L, mpvService.getLongProperty("unknown", -1));
+        Assert.assertEquals(12.5, mpvService.getDoublePropertyAsync("time-pos", 0).get(1, TimeUnit.SECONDS), 0);
+        // Decimal values have the same type, whatever the path (response, event or simulated message)
+        Assert.assertEquals(BigDecimal.class, mpvService.execute(new Command("get_property", "time-pos")).getData().getClass());
+    }
+
+    @Test
+    public void testPrimitivePropertyNotParsed() throws IOException {
+        // The end of the responses is not valid JSON: the data can only be read if the line is not parsed
+        try (MpvService service = new ExistingService("raw", new LoopbackCommunication((line, client) -> client.push(
+                "{\"data\":12.500000,\"request_id\":" + JSONObject.parseObject(line).get("request_id")
+                        + ",\"error\":\"success\",\"extra\":invalid}"
+        )))) {
+            Assert.assertEquals(12.5, service.getDoubleProperty("time-pos", Double.NaN), 0);
+            Assert.assertEquals(12L, service.getLongProperty("time-pos", -1));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.communication.MessageHeader;
+import io.github.macfja.mpv.communication.handling.RoutingKey;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class MessageHeaderTest {
+    @Test
+    public void testScan() {
+        MessageHeader header = scan("{\"event\":\"property-change\",\"id\":42,\"data\":{\"a\":[1,\"}\\\"\"]},\"name\":\"time-pos\"}");
+        Assert.assertNotNull(header);
+        Assert.assertEquals("property-change", header.getEvent());
+        Assert.assertEquals("time-pos", header.getName());
+        Assert.assertEquals(42, header.getId());
+        Assert.assertNull(header.getRequestId());
+        Assert.assertArrayEquals(
+                new String[]{RoutingKey.forEvent("property-change"), RoutingKey.forProperty("time-pos", 42)},
+                header.getRoutingKeys()
+        );
+
+        header = scan(" { \"data\" : 12.5e3 , \"error\" : \"success\" , \"request_id\" : -7 } ");
+        Assert.assertNotNull(header);
+        Assert.assertNull(header.getEvent());
+        Assert.assertEquals(-7, (int) header.getRequestId());
+        Assert.assertArrayEquals(new String[]{RoutingKey.RESPONSE}, header.getRoutingKeys());
+
+        Assert.assertArrayEquals(new String[0], scan("{}").getRoutingKeys());
+    }
+
+    @Test
+    public void testData() {
+        MessageHeader header = scan("{\"data\":12.500000,\"request_id\":1,\"error\":\"success\"}");
+        Assert.assertEquals(12.5, header.getDataAsDouble(-1), 0);
+        Assert.assertEquals(12L, header.getDataAsLong(-1));
+        Assert.assertTrue(header.getDataAsBoolean(true));
+
+        header = scan("{\"data\":-42}");
+        Assert.assertEquals(-42.0, header.getDataAsDouble(0), 0);
+        Assert.assertEquals(-42L, header.getDataAsLong(0));
+
+        // Decoded like Double.parseDouble, even out of the fast path
+        for (String number : new String[]{"0.1", "-3.14159", "12.5e3", "1E-7", "123456789012345678901234.5", "0.30000000000000004"}) {
+            Assert.assertEquals(number, Double.parseDouble(number), scan("{\"data\":" + number + "}").getDataAsDouble(0), 0);
+        }
+        Assert.assertEquals(9007199254740993L, scan("{\"data\":9007199254740993}").getDataAsLong(0));
+
+        Assert.assertFalse(scan("{\"data\":false}").getDataAsBoolean(true));
+        Assert.assertTrue(scan("{\"data\":true}").getDataAsBoolean(false));
+        Assert.assertEquals(-1L, scan("{\"data\":true}").getDataAsLong(-1));
+        Assert.assertEquals(-1L, scan("{\"data\":\"12\"}").getDataAsLong(-1));
+        Assert.assertEquals(-1L, scan("{\"data\":null}").getDataAsLong(-1));
+        Assert.assertEquals(-1L, scan("{\"error\":\"property unavailable\"}").getDataAsLong(-1));
+    }
+
+    @Test
+    public void testUnsupported() {
+        // Escaped routing value, not integer id and malformed messages must be fully parsed
+        Assert.assertNull(scan("{\"event\":\"a\\\"b\"}"));
+        Assert.assertNull(scan("{\"event\":\"property-change\",\"id\":1.5}"));
+        Assert.assertNull(scan("{\"request_id\":null}"));
+        Assert.assertNull(scan("{\"event\":\"idle\""));
+        Assert.assertNull(scan("{\"data\":[1,2}"));
+    }
+
+    private static MessageHeader scan(String line) {
+        byte[] bytes = ("xx" + line + "yy").getBytes(StandardCharsets.UTF_8);
+        return MessageHeader.scan(bytes, 2, bytes.length - 4);
+    }
+}
@@ -0,0 +1,204 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.MessagesListener;
+import io.github.macfja.mpv.communication.MpvResponse;
+import io.github.macfja.mpv.communication.RawResponseHandlerInterface;
+import io.github.macfja.mpv.communication.handling.AbstractMessageHandler;
+import io.github.macfja.mpv.communication.handling.NamedEventHandler;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import io.github.macfja.mpv.communication.handling.ResponseHandler;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MessagesListenerTest {
+    @Test
+    public void testRoutedDispatch() {
+        MessagesListener listener = new MessagesListener(
+                new ByteArrayInputStream(new byte[0]), LoggerFactory.getLogger(MessagesListenerTest.class)
+        );
+        final AtomicInteger observerCalls = new AtomicInteger();
+        final AtomicInteger eventCalls = new AtomicInteger();
+        final AtomicInteger genericCalls = new AtomicInteger();
+
+        for (int index = 0; index < 100; index++) {
+            listener.addMessageHandler(new CountingObserver("property-" + index, index, observerCalls));
+        }
+        listener.addMessageHandler(new NamedEventHandler("pause") {
+            @Override
+            public Runnable doHandle(JSONObject message) {
+                eventCalls.incrementAndGet();
+                return null;
+            }
+        });
+        listener.addMessageHandler(new AbstractMessageHandler() {
+            @Override
+            public boolean canHandle(JSONObject message) {
+                return true;
+            }
+
+            @Override
+            public Runnable doHandle(JSONObject message) {
+                genericCalls.incrementAndGet();
+                return null;
+            }
+        });
+
+        listener.handleLine(PropertyObserver.buildPropertyChangeEvent("property-42", 1, 42));
+        listener.handleLine(PropertyObserver.buildPropertyChangeEvent("property-42", 1, 43));
+        listener.handleLine(new JSONObject().fluentPut("event", "pause"));
+
+        Assert.assertEquals(1, observerCalls.get());
+        Assert.assertEquals(1, eventCalls.get());
+        Assert.assertEquals(3, genericCalls.get());
+
+        listener.removeMessageHandler(listener.getMessageHandlers().get(42));
+        listener.handleLine(PropertyObserver.buildPropertyChangeEvent("property-42", 1, 42));
+        Assert.assertEquals(1, observerCalls.get());
+        Assert.assertEquals(101, listener.getMessageHandlers().size());
+    }
+
+    @Test
+    public void testRegistrationDuringDispatch() throws InterruptedException {
+        final MessagesListener listener = new MessagesListener(
+                new ByteArrayInputStream(new byte[0]), LoggerFactory.getLogger(MessagesListenerTest.class)
+        );
+        final AtomicInteger calls = new AtomicInteger();
+        // A handler that register a new handler each time it receive a message
+        listener.addMessageHandler(new NamedEventHandler("seek") {
+            @Override
+            public Runnable doHandle(JSONObject message) {
+                listener.addMessageHandler(new CountingObserver("time-pos", calls.get(), calls));
+                return null;
+            }
+        });
+        Thread registering = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int index = 0; index < 1000; index++) {
+                    CountingObserver observer = new CountingObserver("volume", -index, calls);
+                    listener.addMessageHandler(observer);
+                    listener.removeMessageHandler(observer);
+                }
+            }
+        });
+        registering.start();
+        for (int index = 0; index < 1000; index++) {
+            listener.handleLine(new JSONObject().fluentPut("event", "seek"));
+        }
+        registering.join();
+
+        Assert.assertEquals(1001, listener.getMessageHandlers().size());
+        try {
+            listener.getMessageHandlers().clear();
+            Assert.fail("The handlers list must not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            Assert.assertEquals(1001, listener.getMessageHandlers().size());
+        }
+    }
+
+    @Test
+    public void testRawResponse() {
+        MessagesListener listener = new MessagesListener(
+                new ByteArrayInputStream(new byte[0]), LoggerFactory.getLogger(MessagesListenerTest.class)
+        );
+        final List<MpvResponse> responses = new ArrayList<>();
+        listener.addMessageHandler(new RawResponseHandler(7, responses));
+
+        // The end of the line is not valid JSON: the data can only be read if the line is not parsed
+        byte[] line = "{\"data\":12.500000,\"request_id\":7,\"error\":\"success\",\"extra\":invalid}".getBytes(StandardCharsets.UTF_8);
+        listener.handleLine(line, 0, line.length);
+        Assert.assertEquals(1, responses.size());
+        Assert.assertEquals(12.5, responses.get(0).getDataAsDouble(0), 0);
+        Assert.assertEquals(12L, responses.get(0).getDataAsLong(0));
+        Assert.assertEquals(7, (int) responses.get(0).getRequestId());
+        try {
+            responses.get(0).getData();
+            Assert.fail("The line is not valid JSON");
+        } catch (JSONException e) {
+            // Parsed only when the message is read
+        }
+
+        // The message is parsed on demand, with the same types as the other messages
+        line = "{\"data\":12.500000,\"request_id\":7,\"error\":\"success\"}".getBytes(StandardCharsets.UTF_8);
+        listener.handleLine(line, 0, line.length);
+        Assert.assertTrue(responses.get(1).isSuccess());
+        Assert.assertEquals(BigDecimal.class, responses.get(1).getData().getClass());
+
+        // Another handler of the response needs the parsed message
+        final AtomicInteger parsed = new AtomicInteger();
+        listener.addMessageHandler(new ResponseHandler() {
+            @Override
+            public boolean canHandle(Integer requestId) {
+                return true;
+            }
+
+            @Override
+            public Runnable doHandle(JSONObject message) {
+                parsed.incrementAndGet();
+                return null;
+            }
+        });
+        listener.handleLine(line, 0, line.length);
+        Assert.assertEquals(1, parsed.get());
+        Assert.assertEquals(3, responses.size());
+        Assert.assertEquals(12.5, responses.get(2).getDataAsDouble(0), 0);
+    }
+
+    /**
+     * A response handler that accept raw responses
+     */
+    private static class RawResponseHandler extends ResponseHandler implements RawResponseHandlerInterface {
+        private final int requestId;
+        private final List<MpvResponse> responses;
+
+        RawResponseHandler(int requestId, List<MpvResponse> responses) {
+            this.requestId = requestId;
+            this.responses = responses;
+        }
+
+        @Override
+        public boolean canHandle(Integer requestId) {
+            return requestId != null && requestId == this.requestId;
+        }
+
+        @Override
+        public void handleResponse(MpvResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        public Runnable doHandle(JSONObject message) {
+            responses.add(new MpvResponse(message));
+            return null;
+        }
+    }
+
+    private static class CountingObserver extends PropertyObserver {
+        private final AtomicInteger calls;
+
+        CountingObserver(String propertyName, Integer id, AtomicInteger calls) {
+            super(propertyName, id);
+            this.calls = calls;
+        }
+
+        @Override
+        public void changed(String propertyName, Object value, Integer id) {
+        }
+
+        @Override
+        public Runnable doHandle(JSONObject message) {
+            calls.incrementAndGet();
+            return null;
+        }
+    }
+}
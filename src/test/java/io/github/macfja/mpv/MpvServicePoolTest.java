@@ -0,0 +1,115 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.wrapper.MpvServicePool;
+import io.github.macfja.mpv.wrapper.ServiceFactoryInterface;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MpvServicePoolTest {
+    private static final ServiceFactoryInterface FAKE_MPV = new ServiceFactoryInterface() {
+        @Override
+        public Service create() {
+            return new FakeMpv().connect();
+        }
+    };
+
+    @Test
+    public void testServicePool() throws IOException, InterruptedException {
+        MpvServicePool pool = new MpvServicePool(3, FAKE_MPV);
+        pool.start();
+        Assert.assertEquals(3, pool.getIdleCount());
+
+        Set<String> sockets = new HashSet<>();
+        for (Service service : pool.getServices()) {
+            sockets.add(service.getSocketPath());
+        }
+        Assert.assertEquals(3, sockets.size());
+
+        Service first = pool.acquire();
+        Service second = pool.acquire();
+        Assert.assertNotSame(first, second);
+        first.setProperty("volume", "30");
+        Assert.assertEquals("30", first.getProperty("volume", String.class));
+        Assert.assertNull(second.getProperty("volume", String.class));
+        Assert.assertEquals(1, pool.getIdleCount());
+
+        pool.release(first);
+        Assert.assertEquals(2, pool.getIdleCount());
+        pool.acquire();
+        pool.acquire();
+        Assert.assertNull(pool.acquire(10, TimeUnit.MILLISECONDS));
+
+        pool.close();
+        Assert.assertTrue(pool.isClosed());
+        Assert.assertTrue(pool.getServices().isEmpty());
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        final MpvServicePool pool = new MpvServicePool(2, FAKE_MPV);
+        pool.start();
+        try {
+            final Service service = pool.acquire();
+            Service other = null;
+            for (Service candidate : pool.getServices()) {
+                if (candidate != service) {
+                    other = candidate;
+                }
+            }
+
+            // Never acquired
+            try {
+                pool.release(other);
+                Assert.fail("The service is not handed out");
+            } catch (IllegalStateException e) {
+                Assert.assertEquals(1, pool.getIdleCount());
+            }
+
+            // Released by several threads at the same time: given back only once
+            final AtomicInteger released = new AtomicInteger();
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                threads.add(new Thread(() -> {
+                    try {
+                        start.await();
+                        pool.release(service);
+                        released.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // Already released
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Assert.assertEquals(1, released.get());
+            Assert.assertEquals(2, pool.getIdleCount());
+
+            // Not from the pool
+            try (Service foreign = new FakeMpv().connect()) {
+                pool.release(foreign);
+                Assert.fail("The service doesn't belong to the pool");
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals(2, pool.getIdleCount());
+            }
+        } finally {
+            pool.close();
+        }
+    }
+}
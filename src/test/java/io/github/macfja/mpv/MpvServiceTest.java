@@ -0,0 +1,140 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.Command;
+import io.github.macfja.mpv.communication.MpvResponse;
+import io.github.macfja.mpv.communication.handling.NamedEventHandler;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+public class MpvServiceTest {
+    @Test
+    public void testDefaultMethods() throws Exception {
+        try (MinimalService service = new MinimalService()) {
+            service.properties.put("volume", 42);
+            service.properties.put("time-pos", 12.5);
+            service.properties.put("pause", true);
+
+            Assert.assertEquals(42L, service.getLongProperty("volume", -1));
+            Assert.assertEquals(12.5, service.getDoubleProperty("time-pos", 0), 0);
+            Assert.assertTrue(service.getBooleanProperty("pause", false));
+            Assert.assertEquals(-1L, service.getLongProperty("pause", -1));
+            Assert.assertEquals(12.5, service.getDoublePropertyAsync("time-pos", 0).get(1, TimeUnit.SECONDS), 0);
+
+            service.setPropertyAsync("volume", "10").get(1, TimeUnit.SECONDS);
+            MpvResponse response = service.execute(new Command("get_property", "volume"));
+            Assert.assertTrue(response.isSuccess());
+            Assert.assertEquals("10", response.getData(String.class));
+
+            List<String> results = service.sendCommands(Arrays.asList(
+                    new Command("set_property", "volume", 20),
+                    new Command("get_property", "volume")
+            ));
+            Assert.assertEquals(2, results.size());
+            Assert.assertEquals(20, (int) service.getPropertyAsync("volume", Integer.class).get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * A service that only implements the methods of the first version of the interface
+     */
+    private static class MinimalService implements MpvService {
+        private final Map<String, Object> properties = new HashMap<>();
+
+        @Override
+        public String sendCommand(String command, List<? extends Serializable> arguments) {
+            JSONObject response = new JSONObject().fluentPut("error", "success");
+            if ("get_property".equals(command)) {
+                response.put("data", properties.get((String) arguments.get(0)));
+            } else if ("set_property".equals(command)) {
+                properties.put((String) arguments.get(0), arguments.get(1));
+            }
+            return response.toJSONString();
+        }
+
+        @Override
+        public void sendNonBlockingCommand(String command, List<? extends Serializable> arguments) {
+            sendCommand(command, arguments);
+        }
+
+        @Override
+        public String setProperty(String name, String value) {
+            return sendCommand("set_property", Arrays.asList(name, value));
+        }
+
+        @Override
+        public String setProperty(String name, Boolean value) {
+            return sendCommand("set_property", Arrays.asList(name, value));
+        }
+
+        @Override
+        public String getProperty(String name) {
+            return sendCommand("get_property", Arrays.asList(name));
+        }
+
+        @Override
+        public <T> T getProperty(String name, Class<T> type) {
+            return JSONObject.parseObject(getProperty(name)).getObject("data", type);
+        }
+
+        @Override
+        public void registerEvent(NamedEventHandler observer) {
+        }
+
+        @Override
+        public void unregisterEvent(NamedEventHandler observer) {
+        }
+
+        @Override
+        public void registerPropertyChange(PropertyObserver observer) {
+        }
+
+        @Override
+        public void unregisterPropertyChange(PropertyObserver observer) {
+        }
+
+        @Override
+        public void unregisterPropertyChange(String propertyName) {
+        }
+
+        @Override
+        public void fireEvent(String eventName) {
+        }
+
+        @Override
+        public void fireEvent(String eventName, JSONObject data) {
+        }
+
+        @Override
+        public void fireEvent(JSONObject event) {
+        }
+
+        @Override
+        public void waitForEvent(String eventName) {
+        }
+
+        @Override
+        public void waitForEvent(String eventName, int timeout) {
+        }
+
+        @Override
+        public CompletableFuture<JSONObject> awaitEvent(String eventName, Predicate<JSONObject> predicate, long timeout) {
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+}
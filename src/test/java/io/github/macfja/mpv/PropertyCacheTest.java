@@ -0,0 +1,154 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import io.github.macfja.mpv.wrapper.ExistingService;
+import io.github.macfja.mpv.wrapper.PropertyCache;
+import io.github.macfja.mpv.wrapper.Shorthand;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PropertyCacheTest {
+    private final Map<String, Object> properties = new ConcurrentHashMap<>();
+    /**
+     * When set, the next read is answered (with the value at the time of the read) once the latch is released
+     */
+    private volatile CountDownLatch delayedRead;
+    private Shorthand shorthand;
+
+    @Before
+    public void init() {
+        properties.put("path", "first.mp3");
+        properties.put("volume", 42);
+        shorthand = new Shorthand(new ExistingService("cache", new LoopbackCommunication(new LoopbackCommunication.Responder() {
+            @Override
+            public void respond(String line, final LoopbackCommunication client) {
+                JSONObject request = JSONObject.parseObject(line);
+                JSONArray command = request.getJSONArray("command");
+                final JSONObject response = new JSONObject()
+                        .fluentPut("error", "success")
+                        .fluentPut("request_id", request.get("request_id"));
+                switch (command.getString(0)) {
+                    case "get_property":
+                        response.put("data", properties.get(command.getString(1)));
+                        final CountDownLatch latch = delayedRead;
+                        if (latch != null) {
+                            delayedRead = null;
+                            new Thread(new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        latch.await();
+                                    } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                    }
+                                    client.push(response);
+                                }
+                            }).start();
+                            return;
+                        }
+                        break;
+                    case "set_property":
+                        properties.put(command.getString(1), command.get(2));
+                        break;
+                    case "playlist-next":
+                        properties.put("path", "second.mp3");
+                        break;
+                    default:
+                        break;
+                }
+                client.push(response);
+            }
+        })));
+    }
+
+    @After
+    public void finish() throws Exception {
+        shorthand.close();
+    }
+
+    @Test
+    public void testPropertyCache() throws Exception {
+        FakeMpv fakeMpv = new FakeMpv();
+        try (Shorthand shorthand = new Shorthand(fakeMpv.connect())) {
+            PropertyCache cache = shorthand.enablePropertyCache(60000, 10);
+            cache.observe("volume");
+            shorthand.sendCommand("set_property", Arrays.asList("volume", 30));
+            shorthand.setProperty("speed", "3");
+
+            int reads = fakeMpv.reads.get();
+            // Wait for the observed change
+            long deadline = System.currentTimeMillis() + 1000;
+            while (!Integer.valueOf(30).equals(cache.get("volume")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                reads = fakeMpv.reads.get();
+            }
+            Assert.assertEquals(30, (int) shorthand.getProperty("volume", Integer.class));
+            Assert.assertEquals(30L, shorthand.getLongProperty("volume", -1));
+            Assert.assertEquals(reads, fakeMpv.reads.get());
+
+            // Read-through
+            Assert.assertEquals(3, (int) shorthand.getProperty("speed", Integer.class));
+            Assert.assertEquals(3, (int) shorthand.getProperty("speed", Integer.class));
+            Assert.assertEquals(reads + 1, fakeMpv.reads.get());
+            shorthand.setProperty("speed", "4");
+            Assert.assertEquals(4, (int) shorthand.getProperty("speed", Integer.class));
+            Assert.assertEquals(reads + 2, fakeMpv.reads.get());
+
+            cache.unobserve("volume");
+            Assert.assertFalse(cache.isObserved("volume"));
+        }
+    }
+
+    @Test
+    public void testReadDuringChangeNotKept() throws Exception {
+        final PropertyCache cache = shorthand.enablePropertyCache(60000, 10);
+        CountDownLatch latch = new CountDownLatch(1);
+        delayedRead = latch;
+        // A read started before the change, answered with the old value after it
+        Future<Object> read = Executors.newSingleThreadExecutor().submit(() -> cache.get("volume"));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (delayedRead != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        shorthand.setProperty("volume", "10");
+        latch.countDown();
+        Assert.assertEquals(42, read.get(1, TimeUnit.SECONDS));
+
+        // The old value was not kept
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals("10", cache.get("volume"));
+    }
+
+    @Test
+    public void testInvalidatedAfterChange() throws Exception {
+        final PropertyCache cache = shorthand.enablePropertyCache(60000, 10);
+        Assert.assertEquals(42, (int) shorthand.getProperty("volume", Integer.class));
+        Assert.assertEquals(1, cache.size());
+        // The cache is invalidated before the dependent stages run
+        Assert.assertEquals(0, (int) shorthand.setPropertyAsync("volume", "20")
+                .thenApply(result -> cache.size()).get(1, TimeUnit.SECONDS));
+        Assert.assertEquals(20, (int) shorthand.getProperty("volume", Integer.class));
+    }
+
+    @Test
+    public void testMediaChangeInvalidated() throws Exception {
+        shorthand.enablePropertyCache(60000, 10);
+        Assert.assertEquals("first.mp3", shorthand.getProperty("path", String.class));
+        Assert.assertEquals("first.mp3", shorthand.getProperty("path", String.class));
+
+        shorthand.next();
+        Assert.assertEquals("second.mp3", shorthand.getProperty("path", String.class));
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import io.github.macfja.mpv.wrapper.ExistingService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class PropertyObservationsTest {
+    @Test
+    public void testSharedGroup() {
+        PropertyObservations observations = new PropertyObservations();
+        PropertyObserver volume = observer("volume", 1);
+        PropertyObserver pause = observer("pause", 1);
+
+        Assert.assertEquals(PropertyObservations.Registration.OBSERVE, observations.add(volume));
+        Assert.assertEquals(PropertyObservations.Registration.OBSERVE, observations.add(pause));
+        Assert.assertEquals(PropertyObservations.Registration.DUPLICATE, observations.add(pause));
+        Assert.assertEquals(2, observations.getObservationCount());
+
+        // The group is still alive: MPV still observe the property
+        Assert.assertFalse(observations.remove(volume));
+        Assert.assertEquals(2, observations.getObservationCount());
+
+        // So a new observer of the property in the group must not observe it again
+        PropertyObserver other = observer("volume", 1);
+        Assert.assertEquals(PropertyObservations.Registration.JOIN, observations.add(other));
+        Assert.assertEquals(2, observations.getObservationCount());
+
+        Assert.assertFalse(observations.remove(pause));
+        Assert.assertTrue(observations.remove(other));
+        Assert.assertEquals(0, observations.getObservationCount());
+
+        // The group was unobserved, the property must be observed again
+        Assert.assertEquals(PropertyObservations.Registration.OBSERVE, observations.add(observer("volume", 1)));
+    }
+
+    @Test
+    public void testCancel() {
+        PropertyObservations observations = new PropertyObservations();
+        PropertyObserver pause = observer("pause", 1);
+        PropertyObserver volume = observer("volume", 1);
+        observations.add(pause);
+        Assert.assertEquals(PropertyObservations.Registration.OBSERVE, observations.add(volume));
+
+        // The observation of the property failed
+        observations.cancel(volume);
+        Assert.assertFalse(observations.contains(volume));
+        Assert.assertEquals(1, observations.getObservationCount());
+        Assert.assertEquals(PropertyObservations.Registration.OBSERVE, observations.add(observer("volume", 1)));
+    }
+
+    @Test
+    public void testSharedObservation() throws Exception {
+        final BlockingQueue<Object> changes = new LinkedBlockingQueue<>();
+        List<PropertyObserver> observers = new ArrayList<>();
+        for (int index = 0; index < 3; index++) {
+            observers.add(new PropertyObserver("brightness") {
+                @Override
+                public void changed(String propertyName, Object value, Integer id) {
+                    changes.add(value);
+                }
+            });
+        }
+        FakeMpv fakeMpv = new FakeMpv();
+        try (Service service = fakeMpv.connect()) {
+            int observations = service.getObservationCount();
+            for (PropertyObserver observer : observers) {
+                service.registerPropertyChange(observer);
+            }
+            Assert.assertEquals(observations + 1, service.getObservationCount());
+            Assert.assertTrue(fakeMpv.isObserved("brightness"));
+
+            service.setProperty("brightness", "10");
+            for (int index = 0; index < 3; index++) {
+                Assert.assertEquals("10", changes.poll(1, TimeUnit.SECONDS));
+            }
+
+            service.unregisterPropertyChange(observers.get(0));
+            service.unregisterPropertyChange(observers.get(1));
+            service.getProperty("brightness");
+            Assert.assertTrue(fakeMpv.isObserved("brightness"));
+
+            // The last observer leave: the property is unobserved
+            service.unregisterPropertyChange("brightness");
+            service.getProperty("brightness");
+            Assert.assertFalse(fakeMpv.isObserved("brightness"));
+            Assert.assertEquals(observations, service.getObservationCount());
+        }
+    }
+
+    @Test
+    public void testNoDuplicateObservation() throws Exception {
+        final List<String> commands = new CopyOnWriteArrayList<>();
+        LoopbackCommunication.Responder responder = new LoopbackCommunication.Responder() {
+            @Override
+            public void respond(String line, LoopbackCommunication client) {
+                JSONObject request = JSONObject.parseObject(line);
+                JSONArray command = request.getJSONArray("command");
+                commands.add(command.getString(0) + " " + command.subList(1, command.size()));
+                client.push(new JSONObject()
+                        .fluentPut("error", "success")
+                        .fluentPut("request_id", request.get("request_id")));
+            }
+        };
+        try (Service service = new ExistingService("observations", new LoopbackCommunication(responder))) {
+            PropertyObserver volume = observer("volume", 1);
+            PropertyObserver pause = observer("pause", 1);
+            service.registerPropertyChange(volume);
+            service.registerPropertyChange(pause);
+            service.unregisterPropertyChange(volume);
+            service.registerPropertyChange(observer("volume", 1));
+
+            Assert.assertEquals(1, count(commands, "observe_property [1, volume]"));
+            Assert.assertEquals(1, count(commands, "observe_property [1, pause]"));
+            Assert.assertEquals(0, count(commands, "unobserve_property [1]"));
+
+            service.unregisterPropertyChange("volume");
+            service.unregisterPropertyChange(pause);
+            // Wait for the (non-blocking) unobserve command
+            service.getProperty("volume");
+            Assert.assertEquals(1, count(commands, "unobserve_property [1]"));
+            Assert.assertEquals(0, service.getObservationCount());
+        }
+    }
+
+    @Test
+    public void testInitialValue() throws Exception {
+        final FakeMpv fakeMpv = new FakeMpv();
+        LoopbackCommunication.Responder responder = new LoopbackCommunication.Responder() {
+            @Override
+            public void respond(String line, LoopbackCommunication client) {
+                fakeMpv.respond(line, client);
+                JSONArray command = JSONObject.parseObject(line).getJSONArray("command");
+                if ("observe_property".equals(command.getString(0))) {
+                    // Like MPV: the current value is sent when the property is observed
+                    client.push(PropertyObserver.buildPropertyChangeEvent(
+                            command.getString(2), fakeMpv.getProperty(command.getString(2)), command.getInteger(1)
+                    ));
+                }
+            }
+        };
+        try (Service service = new ExistingService("observations", new LoopbackCommunication(responder))) {
+            service.setProperty("brightness", "10");
+            final BlockingQueue<Object> first = new LinkedBlockingQueue<>();
+            final BlockingQueue<Object> second = new LinkedBlockingQueue<>();
+            service.registerPropertyChange(new PropertyObserver("brightness", 1) {
+                @Override
+                public void changed(String propertyName, Object value, Integer id) {
+                    first.add(value);
+                }
+            });
+            Assert.assertEquals("10", first.poll(1, TimeUnit.SECONDS));
+
+            // The property is already observed in the group: the value is read for the new observer only
+            service.registerPropertyChange(new PropertyObserver("brightness", 1) {
+                @Override
+                public void changed(String propertyName, Object value, Integer id) {
+                    second.add(value);
+                }
+            });
+            Assert.assertEquals("10", second.poll(1, TimeUnit.SECONDS));
+            Assert.assertNull(first.poll(100, TimeUnit.MILLISECONDS));
+            Assert.assertNull(second.poll(100, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(1, fakeMpv.reads.get());
+        }
+    }
+
+    private static int count(List<String> commands, String command) {
+        int count = 0;
+        for (String sent : commands) {
+            if (sent.equals(command)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static PropertyObserver observer(String propertyName, int id) {
+        return new PropertyObserver(propertyName, id) {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+            }
+        };
+    }
+}
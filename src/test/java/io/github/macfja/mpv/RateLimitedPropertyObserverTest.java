@@ -0,0 +1,129 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.communication.handling.DebouncePropertyObserver;
+import io.github.macfja.mpv.communication.handling.HandlerExecutor;
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import io.github.macfja.mpv.communication.handling.RateLimitedPropertyObserver;
+import io.github.macfja.mpv.communication.handling.SamplePropertyObserver;
+import io.github.macfja.mpv.communication.handling.ThrottlePropertyObserver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class RateLimitedPropertyObserverTest {
+    private ScheduledExecutorService scheduler;
+    private final List<Object> received = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        scheduler = RateLimitedPropertyObserver.createScheduler();
+        received.clear();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testThrottle() throws InterruptedException {
+        ThrottlePropertyObserver observer = new ThrottlePropertyObserver(100, "volume") {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+                received.add(value);
+            }
+        };
+        burst(observer, "volume");
+
+        waitFor(2, 1000);
+        Assert.assertEquals(0, received.get(0));
+        Assert.assertEquals(49, received.get(1));
+        Thread.sleep(250);
+        Assert.assertEquals(2, received.size());
+    }
+
+    @Test
+    public void testThrottleTrailingOnly() throws InterruptedException {
+        ThrottlePropertyObserver observer = new ThrottlePropertyObserver(100, false, true, "volume") {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+                received.add(value);
+            }
+        };
+        burst(observer, "volume");
+
+        waitFor(1, 1000);
+        Thread.sleep(250);
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals(49, received.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrottleWithoutEdge() {
+        new ThrottlePropertyObserver(100, false, false, "volume") {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+            }
+        };
+    }
+
+    @Test
+    public void testDebounce() throws InterruptedException {
+        DebouncePropertyObserver observer = new DebouncePropertyObserver(100, "volume") {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+                received.add(value);
+            }
+        };
+        burst(observer, "volume");
+
+        waitFor(1, 1000);
+        Thread.sleep(250);
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals(49, received.get(0));
+    }
+
+    @Test
+    public void testSample() throws InterruptedException {
+        SamplePropertyObserver observer = new SamplePropertyObserver(50, "time-pos") {
+            @Override
+            public void changed(String propertyName, Object value, Integer id) {
+                received.add(value);
+            }
+        };
+        observer.setScheduler(scheduler);
+        observer.setExecutor(HandlerExecutor.inline());
+        int id = PropertyObserver.getDefaultId("time-pos");
+        for (int index = 0; index < 20; index++) {
+            observer.handle(PropertyObserver.buildPropertyChangeEvent("time-pos", index, id));
+            Thread.sleep(10);
+        }
+
+        waitFor(1, 1000);
+        Thread.sleep(150);
+        Assert.assertTrue(received.size() < 20);
+        Assert.assertEquals(19, received.get(received.size() - 1));
+    }
+
+    private void burst(RateLimitedPropertyObserver observer, String name) {
+        observer.setScheduler(scheduler);
+        observer.setExecutor(HandlerExecutor.inline());
+        int id = PropertyObserver.getDefaultId(name);
+        for (int index = 0; index < 50; index++) {
+            observer.handle(PropertyObserver.buildPropertyChangeEvent(name, index, id));
+        }
+    }
+
+    private void waitFor(int count, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(received.size() >= count);
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.macfja.mpv;
+
+import io.github.macfja.mpv.communication.handling.PropertyObserver;
+import io.github.macfja.mpv.metrics.MetricNames;
+import io.github.macfja.mpv.metrics.SimpleMetricsRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SimpleMetricsRegistryTest {
+    @Test
+    public void testServiceMetrics() throws Exception {
+        SimpleMetricsRegistry metrics = new SimpleMetricsRegistry();
+        try (Service service = new FakeMpv().connect()) {
+            service.setMetrics(metrics);
+            final CountDownLatch changed = new CountDownLatch(1);
+            service.registerPropertyChange(new PropertyObserver("speed") {
+                @Override
+                public void changed(String propertyName, Object value, Integer id) {
+                    changed.countDown();
+                }
+            });
+            for (int index = 0; index < 10; index++) {
+                service.getProperty("mpv-version");
+            }
+            service.setProperty("speed", "2");
+            Assert.assertTrue(changed.await(1, TimeUnit.SECONDS));
+
+            Assert.assertEquals(12, metrics.getMeter(MetricNames.COMMANDS_SENT).getCount());
+            Assert.assertEquals(10, metrics.getHistogram(MetricNames.COMMAND_LATENCY + "get_property").getCount());
+            Assert.assertTrue(metrics.getMeter(MetricNames.LINES_RECEIVED).getCount() >= 13);
+            // Only the event is parsed, the responses are given raw to the pending requests
+            Assert.assertTrue(metrics.getHistogram(MetricNames.LINE_PARSE).getCount() >= 1);
+            Assert.assertTrue(metrics.getHistogram(MetricNames.LINE_PARSE).getCount() < 13);
+            Assert.assertEquals(0, metrics.getGauge(MetricNames.REQUESTS_IN_FLIGHT));
+            Assert.assertTrue(metrics.getTimers().containsKey(
+                    MetricNames.COMMAND_LATENCY + "get_property.p99"
+            ));
+
+            metrics.registerMBean("loopback");
+            ObjectName name = new ObjectName(SimpleMetricsRegistry.JMX_DOMAIN + ":type=Metrics,name=\"loopback\"");
+            Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+            metrics.unregisterMBean();
+            Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.macfja.mpv;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import io.github.macfja.mpv.communication.CommunicationInterface;
+import io.github.macfja.mpv.communication.LoopbackCommunication;
+import io.github.macfja.mpv.communication.UnixSocketCommunication;
+import io.github.macfja.mpv.communication.handling.ResponseHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StartupTest {
+    @Test
+    public void testOpenRetry() {
+        CommunicationInterface communication = new UnixSocketCommunication();
+        communication.setSocketPath(Service.createSocketPath());
+
+        long start = System.nanoTime();
+        try {
+            communication.open(300);
+            Assert.fail("The socket doesn't exist");
+        } catch (IOException e) {
+            // Retried until the timeout
+            Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(300));
+        }
+
+        start = System.nanoTime();
+        try {
+            communication.open();
+            Assert.fail("The socket doesn't exist");
+        } catch (IOException e) {
+            // A single attempt
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(300));
+        }
+    }
+
+    @Test
+    public void testAwaitReady() throws IOException {
+        AtomicInteger handshakes = new AtomicInteger();
+        LoopbackCommunication communication = new LoopbackCommunication(new StartingMpv(handshakes, 3));
+        communication.setExitOnClose(false);
+        try (NotStartedService service = new NotStartedService(communication)) {
+            service.awaitReady(5000);
+            // The handshake is repeated until MPV answers it
+            Assert.assertEquals(3, handshakes.get());
+            Assert.assertTrue(ResponseHandler.isResultSuccess(service.getProperty("volume")));
+        }
+    }
+
+    @Test
+    public void testAwaitReadyTimeout() throws IOException {
+        AtomicInteger handshakes = new AtomicInteger();
+        LoopbackCommunication communication = new LoopbackCommunication(new StartingMpv(handshakes, Integer.MAX_VALUE));
+        communication.setExitOnClose(false);
+        try (NotStartedService service = new NotStartedService(communication)) {
+            long start = System.nanoTime();
+            try {
+                service.awaitReady(200);
+                Assert.fail("MPV never answer the handshake");
+            } catch (IOException e) {
+                // Retried until the timeout (the remaining time is counted in whole milliseconds)
+                Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(199));
+                Assert.assertTrue(handshakes.get() > 1);
+            }
+        }
+    }
+
+    /**
+     * A MPV that fail the commands until its IPC is ready
+     */
+    private static class StartingMpv implements LoopbackCommunication.Responder {
+        private final AtomicInteger handshakes;
+        private final int readyAt;
+
+        StartingMpv(AtomicInteger handshakes, int readyAt) {
+            this.handshakes = handshakes;
+            this.readyAt = readyAt;
+        }
+
+        @Override
+        public void respond(String line, LoopbackCommunication client) {
+            JSONObject request = JSONObject.parseObject(line);
+            JSONArray command = request.getJSONArray("command");
+            boolean ready = !"client_name".equals(command.getString(0)) || handshakes.incrementAndGet() >= readyAt;
+            client.push(new JSONObject()
+                    .fluentPut("error", ready ? "success" : "not ready")
+                    .fluentPut("request_id", request.get("request_id")));
+        }
+    }
+
+    /**
+     * A service that doesn't start MPV, to check its startup steps
+     */
+    private static class NotStartedService extends Service {
+        NotStartedService(CommunicationInterface communication) {
+            super(null, null, communication);
+        }
+
+        @Override
+        protected void initialize() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            ioCommunication.close();
+        }
+    }
+}